@@ -6,7 +6,11 @@
  */
 package org.alfresco.cli;
 
+import org.alfresco.cli.action.OnEventCommand;
 import org.alfresco.cli.config.ConfigCommand;
+import org.alfresco.cli.journal.RecordCommand;
+import org.alfresco.cli.journal.ReplayCommand;
+import org.alfresco.cli.stats.StatsCommand;
 import org.alfresco.cli.watch.WatchCommand;
 import org.springframework.stereotype.Component;
 import picocli.CommandLine.Command;
@@ -15,6 +19,6 @@ import picocli.CommandLine.ScopeType;
 @Component
 @Command(name = "alfresco", scope = ScopeType.INHERIT, mixinStandardHelpOptions = true,
         exitCodeOnExecutionException = 1, showDefaultValues = true, usageHelpAutoWidth = true,
-        version = "1.0", subcommands = { WatchCommand.class, ConfigCommand.class })
+        version = "1.0", subcommands = { WatchCommand.class, RecordCommand.class, ReplayCommand.class, StatsCommand.class, OnEventCommand.class, ConfigCommand.class })
 public class AlfrescoCommand {
 }
@@ -9,11 +9,13 @@ package org.alfresco.cli;
 import javax.annotation.PostConstruct;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.alfresco.cli.events.StreamHandler;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.ExitCodeGenerator;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.ConfigurableApplicationContext;
 import picocli.CommandLine;
 import picocli.CommandLine.IFactory;
 
@@ -48,6 +50,10 @@ public class Application implements CommandLineRunner, ExitCodeGenerator {
     }
 
     public static void main(String[] args) {
-        SpringApplication.run(Application.class, args);
+        final ConfigurableApplicationContext context = SpringApplication.run(Application.class, args);
+        // commands handling the events keep listening, the others are done once executed
+        if (!context.getBean(StreamHandler.class).isStarted()) {
+            System.exit(SpringApplication.exit(context));
+        }
     }
 }
@@ -0,0 +1,231 @@
+/*
+ * Copyright 2005-2020 Alfresco Software, Ltd. All rights reserved.
+ * License rights for this program may be obtained from Alfresco Software, Ltd.
+ * pursuant to a written agreement and any use of this program without such an
+ * agreement is prohibited.
+ */
+package org.alfresco.cli.action;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import org.alfresco.event.sdk.model.v1.model.DataAttributes;
+import org.alfresco.event.sdk.model.v1.model.NodeResource;
+import org.alfresco.event.sdk.model.v1.model.RepoEvent;
+
+/**
+ * Runs an action for the events on a bounded pool of workers.
+ *
+ * The events of a node are coalesced: the action runs the coalesce window after the first event of
+ * the node, with its latest event, and never twice at the same time for the same node. Events
+ * received while it runs trigger one more run afterwards. Failed runs are retried with an exponential delay,
+ * and once the retries are exhausted the event is appended to the dead letter file, as are the events
+ * that can not be scheduled anymore once closing.
+ */
+class ActionRunner implements Closeable {
+
+    private final EventAction action;
+    private final ObjectMapper objectMapper;
+    private final ScheduledExecutorService workers;
+    private final Semaphore capacity;
+    private final long coalesceWindow;
+    private final int retries;
+    private final long retryDelay;
+    private final Path deadLetter;
+    private final Map<String, Pending> pending = new ConcurrentHashMap<>();
+    private final LongAdder received = new LongAdder();
+    private final LongAdder runs = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    /**
+     * @param threads workers running the actions
+     * @param capacity nodes waiting for an action before new nodes have to wait
+     * @param coalesceWindow milliseconds between the first event of a node and its action
+     * @param retries runs after the first failure of an action
+     * @param retryDelay milliseconds before the first retry, doubled for every retry
+     */
+    ActionRunner(EventAction action, ObjectMapper objectMapper, int threads, int capacity, long coalesceWindow,
+            int retries, long retryDelay, Path deadLetter) {
+        this.action = action;
+        this.objectMapper = objectMapper;
+        final AtomicInteger count = new AtomicInteger();
+        this.workers = new ScheduledThreadPoolExecutor(threads, task -> {
+            final Thread thread = new Thread(task, "action-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.capacity = new Semaphore(capacity);
+        this.coalesceWindow = coalesceWindow;
+        this.retries = retries;
+        this.retryDelay = retryDelay;
+        this.deadLetter = deadLetter;
+    }
+
+    /**
+     * Schedule the action for the node of the event, unless it is already scheduled.
+     */
+    void submit(RepoEvent<DataAttributes<NodeResource>> event) {
+        received.increment();
+        final String nodeId = event.getData().getResource().getId();
+        if (pending.computeIfPresent(nodeId, (key, existing) -> update(existing, event)) != null) {
+            return;
+        }
+        // the entry may be created: every entry holds a permit, given back if another thread created it
+        // meanwhile
+        acquire();
+        final boolean[] created = {false};
+        final Pending scheduled = pending.compute(nodeId, (key, existing) -> {
+            if (existing != null) {
+                return update(existing, event);
+            }
+            created[0] = true;
+            return new Pending(event);
+        });
+        if (created[0]) {
+            schedule(nodeId, scheduled);
+        } else {
+            capacity.release();
+        }
+    }
+
+    private static Pending update(Pending existing, RepoEvent<DataAttributes<NodeResource>> event) {
+        existing.event = event;
+        existing.updated = true;
+        return existing;
+    }
+
+    private void acquire() {
+        try {
+            capacity.acquire();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while scheduling an action", ex);
+        }
+    }
+
+    private void schedule(String nodeId, Pending scheduled) {
+        try {
+            workers.schedule(() -> start(nodeId), coalesceWindow, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException ex) {
+            // stopping: the latest event of the node is not acted on, as when the retries are exhausted
+            pending.remove(nodeId, scheduled);
+            capacity.release();
+            failures.increment();
+            deadLetter(scheduled.event, 0, "Stopped before the action could run");
+        }
+    }
+
+    private void start(String nodeId) {
+        final Pending current = pending.computeIfPresent(nodeId, (key, existing) -> {
+            existing.updated = false;
+            existing.running = existing.event;
+            return existing;
+        });
+        if (current != null) {
+            attempt(nodeId, current.running, 0);
+        }
+    }
+
+    private void attempt(String nodeId, RepoEvent<DataAttributes<NodeResource>> event, int attempt) {
+        try {
+            action.run(event);
+            runs.increment();
+        } catch (Exception ex) {
+            if (ex instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            } else if (attempt < retries) {
+                try {
+                    workers.schedule(() -> attempt(nodeId, event, attempt + 1), retryDelay << attempt,
+                            TimeUnit.MILLISECONDS);
+                    return;
+                } catch (RejectedExecutionException rejected) {
+                    // stopping, no more retries
+                }
+            }
+            failures.increment();
+            deadLetter(event, attempt + 1, String.valueOf(ex.getMessage()));
+        }
+        finish(nodeId);
+    }
+
+    /**
+     * Run again for the events received meanwhile, or release the node.
+     */
+    private void finish(String nodeId) {
+        final Pending[] finished = {null};
+        final Pending again = pending.computeIfPresent(nodeId, (key, existing) -> {
+            finished[0] = existing;
+            return existing.updated ? existing : null;
+        });
+        if (again != null) {
+            schedule(nodeId, again);
+        } else if (finished[0] != null) {
+            capacity.release();
+        }
+    }
+
+    /**
+     * Nodes that can still be scheduled before new nodes have to wait.
+     */
+    int getAvailableCapacity() {
+        return capacity.availablePermits();
+    }
+
+    private synchronized void deadLetter(RepoEvent<DataAttributes<NodeResource>> event, int attempts, String error) {
+        final ObjectNode entry = objectMapper.createObjectNode()
+                .put("failedAt", Instant.now().toString())
+                .put("attempts", attempts)
+                .put("error", error);
+        entry.set("event", objectMapper.valueToTree(event));
+        try {
+            Files.write(deadLetter, (objectMapper.writeValueAsString(entry) + "\n").getBytes(StandardCharsets.UTF_8),
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException writeError) {
+            System.err.println("Dead letter can not be written: " + writeError.getMessage());
+        }
+        System.err.printf("Action failed after %d attempts for %s: %s%n", attempts,
+                event.getData().getResource().getId(), error);
+    }
+
+    /**
+     * Run the scheduled actions and wait for them.
+     */
+    @Override
+    public void close() {
+        workers.shutdown();
+        try {
+            workers.awaitTermination(coalesceWindow + TimeUnit.MINUTES.toMillis(1), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        System.err.printf("%d events received, %d actions run, %d failed%n", received.sum(), runs.sum(),
+                failures.sum());
+    }
+
+    private static final class Pending {
+
+        // guarded by the map entry
+        RepoEvent<DataAttributes<NodeResource>> event;
+        RepoEvent<DataAttributes<NodeResource>> running;
+        boolean updated;
+
+        Pending(RepoEvent<DataAttributes<NodeResource>> event) {
+            this.event = event;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+/*
+ * Copyright 2005-2020 Alfresco Software, Ltd. All rights reserved.
+ * License rights for this program may be obtained from Alfresco Software, Ltd.
+ * pursuant to a written agreement and any use of this program without such an
+ * agreement is prohibited.
+ */
+package org.alfresco.cli.action;
+
+import org.alfresco.event.sdk.model.v1.model.DataAttributes;
+import org.alfresco.event.sdk.model.v1.model.NodeResource;
+import org.alfresco.event.sdk.model.v1.model.RepoEvent;
+
+/**
+ * Action run for an event. Failures are reported by throwing, so the action can be retried.
+ */
+@FunctionalInterface
+public interface EventAction {
+
+    void run(RepoEvent<DataAttributes<NodeResource>> event) throws Exception;
+}
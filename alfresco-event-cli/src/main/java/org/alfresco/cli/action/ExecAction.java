@@ -0,0 +1,151 @@
+/*
+ * Copyright 2005-2020 Alfresco Software, Ltd. All rights reserved.
+ * License rights for this program may be obtained from Alfresco Software, Ltd.
+ * pursuant to a written agreement and any use of this program without such an
+ * agreement is prohibited.
+ */
+package org.alfresco.cli.action;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.alfresco.cli.events.EventPrinter;
+import org.alfresco.event.sdk.model.v1.model.DataAttributes;
+import org.alfresco.event.sdk.model.v1.model.NodeResource;
+import org.alfresco.event.sdk.model.v1.model.RepoEvent;
+
+/**
+ * Runs a command for every event. The template is split into arguments once, like a shell would do
+ * with quotes, and the placeholders of every argument are replaced by the properties of the event,
+ * so they are never interpreted by a shell. The JSON of the event is written to the standard input
+ * of the command while the timeout runs: a command not reading it is stopped as well.
+ */
+class ExecAction implements EventAction {
+
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\{(\\w+)\\}");
+
+    private final List<String> template;
+    private final ObjectWriter writer;
+    private final long timeout;
+    private final ExecutorService inputWriters = Executors.newCachedThreadPool(task -> {
+        final Thread thread = new Thread(task, "action-input");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    ExecAction(String template, ObjectWriter writer, long timeoutSeconds) {
+        this.template = split(template);
+        this.writer = writer;
+        this.timeout = timeoutSeconds;
+        if (this.template.isEmpty()) {
+            throw new IllegalArgumentException("Empty command");
+        }
+    }
+
+    @Override
+    public void run(RepoEvent<DataAttributes<NodeResource>> event) throws IOException, InterruptedException {
+        final Map<String, String> properties = properties(event);
+        final List<String> command = new ArrayList<>(template.size());
+        for (String argument : template) {
+            final Matcher matcher = PLACEHOLDER.matcher(argument);
+            command.add(matcher.replaceAll(match -> Matcher.quoteReplacement(
+                    properties.getOrDefault(match.group(1), match.group()))));
+        }
+        final byte[] input = writer.writeValueAsBytes(event);
+        final Process process = new ProcessBuilder(command)
+                .redirectOutput(ProcessBuilder.Redirect.INHERIT)
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+        // once the pipe is full, writing waits for the command to read it
+        final Future<?> writing = inputWriters.submit(() -> {
+            try (OutputStream in = process.getOutputStream()) {
+                in.write(input);
+            } catch (IOException ex) {
+                // the command does not read the event
+            }
+        });
+        try {
+            if (!process.waitFor(timeout, TimeUnit.SECONDS)) {
+                // the pipe is broken, which ends the writing
+                process.destroyForcibly();
+                throw new IOException("Command timed out after " + timeout + " s: " + command);
+            }
+        } finally {
+            writing.cancel(true);
+        }
+        if (process.exitValue() != 0) {
+            throw new IOException("Command exited with " + process.exitValue() + ": " + command);
+        }
+    }
+
+    /**
+     * Values of the placeholders: {id}, {name}, {type}, {nodeType}, {mimeType}, {user} and {parentId}.
+     */
+    static Map<String, String> properties(RepoEvent<DataAttributes<NodeResource>> event) {
+        final NodeResource node = event.getData().getResource();
+        final Map<String, String> properties = new HashMap<>();
+        properties.put("id", node.getId());
+        properties.put("name", node.getName());
+        properties.put("type", EventPrinter.convertEventType(event.getType()));
+        properties.put("nodeType", node.getNodeType());
+        if (node.getContent() != null) {
+            properties.put("mimeType", node.getContent().getMimeType());
+        }
+        if (node.getModifiedByUser() != null) {
+            properties.put("user", node.getModifiedByUser().getId());
+        }
+        if (node.getPrimaryHierarchy() != null && !node.getPrimaryHierarchy().isEmpty()) {
+            properties.put("parentId", node.getPrimaryHierarchy().get(0));
+        }
+        properties.values().removeIf(value -> value == null);
+        return properties;
+    }
+
+    /**
+     * Split a command line on spaces, keeping together the text between single or double quotes.
+     */
+    static List<String> split(String commandLine) {
+        final List<String> arguments = new ArrayList<>();
+        final StringBuilder argument = new StringBuilder();
+        boolean inArgument = false;
+        char quote = 0;
+        for (char c : commandLine.toCharArray()) {
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                } else {
+                    argument.append(c);
+                }
+            } else if (c == '\'' || c == '"') {
+                quote = c;
+                inArgument = true;
+            } else if (Character.isWhitespace(c)) {
+                if (inArgument) {
+                    arguments.add(argument.toString());
+                    argument.setLength(0);
+                    inArgument = false;
+                }
+            } else {
+                argument.append(c);
+                inArgument = true;
+            }
+        }
+        if (quote != 0) {
+            throw new IllegalArgumentException("Unterminated quote in command: " + commandLine);
+        }
+        if (inArgument) {
+            arguments.add(argument.toString());
+        }
+        return arguments;
+    }
+}
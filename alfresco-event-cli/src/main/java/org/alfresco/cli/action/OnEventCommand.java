@@ -0,0 +1,90 @@
+/*
+ * Copyright 2005-2020 Alfresco Software, Ltd. All rights reserved.
+ * License rights for this program may be obtained from Alfresco Software, Ltd.
+ * pursuant to a written agreement and any use of this program without such an
+ * agreement is prohibited.
+ */
+package org.alfresco.cli.action;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import javax.annotation.PreDestroy;
+import org.alfresco.cli.watch.AbstractWatchCommand;
+import org.alfresco.event.sdk.handling.filter.EventFilter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import picocli.CommandLine.ArgGroup;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.Parameters;
+
+@Component
+@Command(name = "on-event", mixinStandardHelpOptions = true, exitCodeOnExecutionException = 44,
+        description = "Run a command or call a webhook for the events")
+public class OnEventCommand extends AbstractWatchCommand {
+
+    static class Handler {
+
+        @Option(names = {"-e", "--exec"}, required = true,
+                description = "Command run for every node, with the placeholders {id}, {name}, {type}, {nodeType}, {mimeType}, {user} and {parentId}. The JSON of the event is written to its input.")
+        String command;
+
+        @Option(names = {"-wh", "--webhook"}, required = true, description = "URL the JSON of the events is posted to.")
+        String url;
+    }
+
+    @ArgGroup(exclusive = true, multiplicity = "1")
+    Handler handler;
+
+    @Parameters(arity = "0..*", description = "The ids or relative paths of the folders to be watched. Events of every folder are handled by default.")
+    List<String> folders = new ArrayList<>();
+
+    @Option(names = {"-th", "--threads"}, description = "Actions run at the same time.")
+    int threads = 4;
+
+    @Option(names = {"-q", "--queue"}, description = "Nodes waiting for an action before the events have to wait.")
+    int queue = 10000;
+
+    @Option(names = {"-cw", "--coalesce-window"},
+            description = "Milliseconds between the first event of a node and its action, run once for all the events received meanwhile.")
+    long coalesceWindow = 1000;
+
+    @Option(names = {"-rt", "--retries"}, description = "Retries of a failed action.")
+    int retries = 3;
+
+    @Option(names = {"-rd", "--retry-delay"}, description = "Milliseconds before the first retry, doubled for every retry.")
+    long retryDelay = 1000;
+
+    @Option(names = {"-to", "--timeout"}, description = "Seconds an action can last.")
+    long timeout = 60;
+
+    @Option(names = {"-dl", "--dead-letter"}, description = "File the events are appended to when their action keeps failing.")
+    File deadLetter = new File("dead-letter.ndjson");
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    private ActionRunner runner;
+
+    @Override
+    public Integer call() {
+        final EventAction action = handler.command != null
+                ? new ExecAction(handler.command, objectMapper.writer(), timeout)
+                : new WebhookAction(handler.url, objectMapper.writer(), timeout);
+        runner = new ActionRunner(action, objectMapper, threads, queue, coalesceWindow, retries, retryDelay,
+                deadLetter.toPath());
+
+        final EventFilter filter = folders.isEmpty() ? nodeEvents() : folderFilter(folders);
+        watch(filter, runner::submit);
+        return 0;
+    }
+
+    @PreDestroy
+    public void close() {
+        if (runner != null) {
+            runner.close();
+        }
+    }
+}
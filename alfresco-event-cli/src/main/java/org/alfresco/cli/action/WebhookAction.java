@@ -0,0 +1,50 @@
+/*
+ * Copyright 2005-2020 Alfresco Software, Ltd. All rights reserved.
+ * License rights for this program may be obtained from Alfresco Software, Ltd.
+ * pursuant to a written agreement and any use of this program without such an
+ * agreement is prohibited.
+ */
+package org.alfresco.cli.action;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import org.alfresco.event.sdk.model.v1.model.DataAttributes;
+import org.alfresco.event.sdk.model.v1.model.NodeResource;
+import org.alfresco.event.sdk.model.v1.model.RepoEvent;
+
+/**
+ * Posts the JSON of every event to a URL, failing unless the response is successful. A single client
+ * is shared by every worker, keeping its connections open between events.
+ */
+class WebhookAction implements EventAction {
+
+    private final URI uri;
+    private final ObjectWriter writer;
+    private final Duration timeout;
+    private final HttpClient client;
+
+    WebhookAction(String url, ObjectWriter writer, long timeoutSeconds) {
+        this.uri = URI.create(url);
+        this.writer = writer;
+        this.timeout = Duration.ofSeconds(timeoutSeconds);
+        this.client = HttpClient.newBuilder().connectTimeout(timeout).build();
+    }
+
+    @Override
+    public void run(RepoEvent<DataAttributes<NodeResource>> event) throws IOException, InterruptedException {
+        final HttpRequest request = HttpRequest.newBuilder(uri)
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(writer.writeValueAsBytes(event)))
+                .build();
+        final HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() / 100 != 2) {
+            throw new IOException("Webhook answered " + response.statusCode() + ": " + uri);
+        }
+    }
+}
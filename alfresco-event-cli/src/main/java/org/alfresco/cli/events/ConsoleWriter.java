@@ -0,0 +1,178 @@
+/*
+ * Copyright 2005-2020 Alfresco Software, Ltd. All rights reserved.
+ * License rights for this program may be obtained from Alfresco Software, Ltd.
+ * pursuant to a written agreement and any use of this program without such an
+ * agreement is prohibited.
+ */
+package org.alfresco.cli.events;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import javax.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Writes lines to the standard output from a dedicated thread, so the threads consuming events
+ * never wait for the terminal.
+ *
+ * Lines are queued without locks, in a queue bounded by an atomic count, and written in batches
+ * through a large buffer, flushed when the queue is empty or periodically while it is not. The
+ * writer thread is parked while there is nothing to write and unparked by the next line. When the
+ * queue is full, writing waits for it, unless dropping is enabled for output only meant to be read,
+ * as the table: lines are then dropped, and the dropped and queued counts are reported in the error
+ * output.
+ */
+@Component
+public class ConsoleWriter {
+
+    private static final int BUFFER_SIZE = 256 * 1024;
+    private static final int BATCH_SIZE = 1024;
+    private static final long REPORT_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+    private static final long FULL_WAIT = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final Queue<String> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicLong dropped = new AtomicLong();
+    private final int capacity;
+    private final long flushInterval;
+    private final PrintStream out;
+    private final PrintStream err;
+    private final Thread thread;
+    private volatile boolean running = true;
+    private volatile boolean dropping = false;
+    // set by the writer thread before it parks, so writers only unpark it when needed
+    private volatile boolean idle = false;
+
+    ConsoleWriter(@Value("${output.queue.capacity:65536}") int capacity,
+            @Value("${output.flush.interval:100}") long flushIntervalMillis) {
+        this.capacity = capacity;
+        this.flushInterval = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        this.out = System.out;
+        this.err = System.err;
+        this.thread = new Thread(this::run, "console-writer");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Drop the lines instead of waiting while the queue is full.
+     */
+    public void setDropping(boolean dropping) {
+        this.dropping = dropping;
+    }
+
+    /**
+     * Queue a line to be written, waiting while the queue is full unless dropping is enabled.
+     *
+     * @return false when the line has been dropped because the queue is full
+     */
+    public boolean write(String line) {
+        while (true) {
+            final int current = queued.get();
+            if (current < capacity) {
+                if (queued.compareAndSet(current, current + 1)) {
+                    break;
+                }
+            } else if (dropping) {
+                dropped.incrementAndGet();
+                return false;
+            } else {
+                // the writer thread is busy, give it some time
+                LockSupport.parkNanos(this, FULL_WAIT);
+                if (Thread.interrupted()) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while writing to the output");
+                }
+            }
+        }
+        queue.offer(line);
+        if (idle) {
+            LockSupport.unpark(thread);
+        }
+        return true;
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    public int getQueued() {
+        return queued.get();
+    }
+
+    private void run() {
+        final Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        long lastFlush = System.nanoTime();
+        long lastReport = lastFlush;
+        long reportedDropped = 0;
+        boolean pending = false;
+        try {
+            while (running || !queue.isEmpty()) {
+                int count = 0;
+                String line;
+                while (count < BATCH_SIZE && (line = queue.poll()) != null) {
+                    writer.write(line);
+                    writer.write('\n');
+                    count++;
+                }
+                if (count > 0) {
+                    queued.addAndGet(-count);
+                    pending = true;
+                } else {
+                    // flush as soon as the consumers are idle, then wait for them
+                    if (pending) {
+                        writer.flush();
+                        pending = false;
+                        lastFlush = System.nanoTime();
+                    }
+                    idle = true;
+                    // checked again once idle is visible, a line queued meanwhile unparks this thread
+                    if (running && queue.isEmpty()) {
+                        LockSupport.parkNanos(this, REPORT_INTERVAL);
+                    }
+                    idle = false;
+                }
+                final long now = System.nanoTime();
+                // and periodically while they are not
+                if (pending && now - lastFlush >= flushInterval) {
+                    writer.flush();
+                    pending = false;
+                    lastFlush = now;
+                }
+                if (now - lastReport >= REPORT_INTERVAL) {
+                    final long totalDropped = dropped.get();
+                    if (totalDropped != reportedDropped) {
+                        err.printf("Output is behind: %d lines dropped, %d queued%n", totalDropped - reportedDropped,
+                                queued.get());
+                        reportedDropped = totalDropped;
+                    }
+                    lastReport = now;
+                }
+            }
+            writer.flush();
+        } catch (IOException ex) {
+            err.println("Output can not be written: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Write the queued lines and stop the writer thread.
+     */
+    @PreDestroy
+    public void close() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(thread);
+        thread.join(TimeUnit.SECONDS.toMillis(5));
+    }
+}
@@ -11,6 +11,7 @@ import org.alfresco.event.sdk.integration.EventChannels;
 import org.alfresco.event.sdk.model.v1.model.DataAttributes;
 import org.alfresco.event.sdk.model.v1.model.NodeResource;
 import org.alfresco.event.sdk.model.v1.model.RepoEvent;
+import org.alfresco.event.sdk.model.v1.model.Resource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -24,14 +25,31 @@ public class EventHandler {
     private StreamFilter filter;
 
     @Autowired
-    private EventPrinter printer;
+    private StreamCoalescer coalescer;
 
+    @Autowired
+    private StripedExecutor executor;
+
+    /**
+     * Events are filtered and handled by the executor threads, keyed by node so the events of every
+     * node keep their order.
+     */
     @Bean
     public IntegrationFlow handleEvent() {
-        printer.printHeader();
         return IntegrationFlows.from(EventChannels.MAIN)
-                .filter(filter::test)
-                .handle(t -> printer.printEvent((RepoEvent<DataAttributes<NodeResource>>)t.getPayload()))
+                .handle(t -> {
+                    final RepoEvent<DataAttributes<Resource>> event = (RepoEvent<DataAttributes<Resource>>) t.getPayload();
+                    executor.execute(nodeId(event), () -> {
+                        if (filter.test(event)) {
+                            coalescer.accept((RepoEvent) event);
+                        }
+                    });
+                })
                 .get();
     }
+
+    private static String nodeId(RepoEvent<DataAttributes<Resource>> event) {
+        final DataAttributes<Resource> data = event.getData();
+        return data != null && data.getResource() instanceof NodeResource ? ((NodeResource) data.getResource()).getId() : null;
+    }
 }
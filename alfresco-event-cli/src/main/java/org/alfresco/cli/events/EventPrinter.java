@@ -6,29 +6,81 @@
  */
 package org.alfresco.cli.events;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import org.alfresco.event.sdk.model.v1.model.DataAttributes;
 import org.alfresco.event.sdk.model.v1.model.NodeResource;
 import org.alfresco.event.sdk.model.v1.model.RepoEvent;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 @Component
 public class EventPrinter {
 
+    public static final String DEFAULT = "default";
+    public static final String NDJSON = "ndjson";
+
+    private static final String LINE = "--------------------------------------------------------------------------------------------------------------------------------------------------";
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ConsoleWriter consoleWriter;
+
+    private volatile ObjectWriter ndjsonWriter;
+
+    /**
+     * Select the output format, printing the table header for the default one.
+     */
+    public void setFormat(String format) {
+        if (NDJSON.equals(format)) {
+            // the mapper of the context knows the date types of the events
+            ndjsonWriter = objectMapper.writer();
+            // read by other tools, every record is written
+            consoleWriter.setDropping(false);
+        } else if (DEFAULT.equals(format)) {
+            ndjsonWriter = null;
+            // read by a person, the table may skip lines to keep up with the events
+            consoleWriter.setDropping(true);
+            printHeader();
+        } else {
+            throw new IllegalArgumentException("Unknown format " + format);
+        }
+    }
+
     public void printHeader() {
-        System.out.println("--------------------------------------------------------------------------------------------------------------------------------------------------");
-        System.out.printf("%-20s %-40s %-30s %-32s %-10s", "EVENT TYPE", "ID", "NAME", "MODIFIED AT", "USER");
-        System.out.println();
-        System.out.println("--------------------------------------------------------------------------------------------------------------------------------------------------");
+        consoleWriter.write(LINE);
+        consoleWriter.write(String.format("%-20s %-40s %-30s %-32s %-10s", "EVENT TYPE", "ID", "NAME", "MODIFIED AT", "USER"));
+        consoleWriter.write(LINE);
     }
 
 
     public void printEvent(RepoEvent<DataAttributes<NodeResource>> event) {
+        final ObjectWriter writer = ndjsonWriter;
+        if (writer != null) {
+            printJson(writer, event);
+            return;
+        }
         final NodeResource resource = event.getData().getResource();
-        System.out.printf("%-20s %-40s %-30s %-32s %-10s", convertEventType(event.getType()), resource.getId(), resource.getName(), resource.getModifiedAt(), resource.getModifiedByUser().getDisplayName());
-        System.out.println();
+        // formatted in the consumer thread, written to the terminal by the console writer
+        consoleWriter.write(String.format("%-20s %-40s %-30s %-32s %-10s", convertEventType(event.getType()), resource.getId(), resource.getName(), resource.getModifiedAt(), resource.getModifiedByUser().getDisplayName()));
+    }
+
+    private void printJson(ObjectWriter writer, RepoEvent<DataAttributes<NodeResource>> event) {
+        // one line per event, flushed by the console writer as soon as it is idle
+        try {
+            consoleWriter.write(writer.writeValueAsString(event));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException(ex);
+        }
     }
 
-    private String convertEventType(String eventType) {
+    /**
+     * Short name of an event type, as in NODE_CREATED.
+     */
+    public static String convertEventType(String eventType) {
         return eventType
                 .replace("org.alfresco.event.", "")
                 .replace(".", "_")
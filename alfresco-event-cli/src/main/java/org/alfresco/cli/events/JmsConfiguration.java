@@ -0,0 +1,61 @@
+/*
+ * Copyright 2005-2020 Alfresco Software, Ltd. All rights reserved.
+ * License rights for this program may be obtained from Alfresco Software, Ltd.
+ * pursuant to a written agreement and any use of this program without such an
+ * agreement is prohibited.
+ */
+package org.alfresco.cli.events;
+
+import java.util.Locale;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.jms.activemq.ActiveMQConnectionFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jms.listener.DefaultMessageListenerContainer;
+
+/**
+ * Consumption settings of the events: prefetch of the broker, sessions cached by the listener and
+ * concurrent consumers.
+ */
+@Configuration
+public class JmsConfiguration {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JmsConfiguration.class);
+
+    @Bean
+    ActiveMQConnectionFactoryCustomizer prefetchCustomizer(@Value("${jms.prefetch:1000}") int prefetch) {
+        return factory -> factory.getPrefetchPolicy().setAll(prefetch);
+    }
+
+    @Bean
+    static BeanPostProcessor listenerContainerCustomizer(Environment environment) {
+        final int concurrency = environment.getProperty("jms.listener.concurrency", Integer.class, 1);
+        final String cacheLevel = environment.getProperty("jms.listener.cache-level", "consumer");
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof DefaultMessageListenerContainer) {
+                    configure((DefaultMessageListenerContainer) bean, beanName, concurrency, cacheLevel);
+                }
+                return bean;
+            }
+        };
+    }
+
+    private static void configure(DefaultMessageListenerContainer container, String beanName, int concurrency,
+            String cacheLevel) {
+        // connection, session and consumer are kept between receives
+        container.setCacheLevelName("CACHE_" + cacheLevel.toUpperCase(Locale.ROOT));
+        if (concurrency > 1 && container.isPubSubDomain() && !container.isSubscriptionShared()) {
+            // every consumer of a topic would receive every event
+            LOGGER.warn("Events of the topic of {} are consumed by a single consumer, ignoring jms.listener.concurrency={}",
+                    beanName, concurrency);
+            return;
+        }
+        container.setConcurrentConsumers(concurrency);
+    }
+}
@@ -0,0 +1,320 @@
+/*
+ * Copyright 2005-2020 Alfresco Software, Ltd. All rights reserved.
+ * License rights for this program may be obtained from Alfresco Software, Ltd.
+ * pursuant to a written agreement and any use of this program without such an
+ * agreement is prohibited.
+ */
+package org.alfresco.cli.events;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import org.alfresco.event.sdk.model.databind.ObjectMapperFactory;
+import org.alfresco.event.sdk.model.v1.model.DataAttributes;
+import org.alfresco.event.sdk.model.v1.model.EventType;
+import org.alfresco.event.sdk.model.v1.model.NodeResource;
+import org.alfresco.event.sdk.model.v1.model.RepoEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+/**
+ * Optional stage between the {@link org.alfresco.cli.filters.StreamFilter} and the
+ * {@link StreamHandler}, disabled until a window is set.
+ *
+ * Events with an id already seen during the window are dropped. The updates of a node are held for
+ * the window and merged into one: the latest update, with the state of every changed field before
+ * the first update. Any other event of the node handles the held update first, keeping the order
+ * of the events of the node. Both maps are bounded: the oldest
+ * ids are forgotten, and updates are handled right away while the map of held updates is full.
+ *
+ * Held updates are handled by the {@link StripedExecutor} thread of their node once the window ends.
+ */
+@Component
+public class StreamCoalescer implements Consumer<RepoEvent<DataAttributes<NodeResource>>>, SmartLifecycle {
+
+    private static final String NODE_UPDATED = EventType.NODE_UPDATED.getType();
+
+    @Autowired
+    StreamHandler handler;
+
+    @Autowired
+    StripedExecutor executor;
+
+    LongSupplier clock = System::nanoTime;
+
+    private final int capacity;
+    private final Map<String, Long> seen;
+    private final Map<String, HeldUpdate> held = new LinkedHashMap<>();
+    private final LongAdder duplicates = new LongAdder();
+    private final LongAdder merged = new LongAdder();
+    // same mapper as the events received from the broker
+    private final ObjectMapper objectMapper = ObjectMapperFactory.createInstance();
+    private volatile long window;
+    private ScheduledExecutorService sweeper;
+
+    StreamCoalescer(@Value("${dedup.capacity:100000}") int capacity) {
+        this.capacity = capacity;
+        this.seen = new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > StreamCoalescer.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * Start deduplicating and merging the events of the given window, in milliseconds, or stop with 0.
+     */
+    public synchronized void setWindow(long millis) {
+        this.window = TimeUnit.MILLISECONDS.toNanos(millis);
+        if (millis > 0 && sweeper == null) {
+            sweeper = Executors.newSingleThreadScheduledExecutor(task -> {
+                final Thread thread = new Thread(task, "event-coalescer");
+                thread.setDaemon(true);
+                return thread;
+            });
+            final long period = Math.max(millis / 4, 10);
+            sweeper.scheduleAtFixedRate(this::sweep, period, period, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public void accept(RepoEvent<DataAttributes<NodeResource>> event) {
+        if (window == 0) {
+            handler.accept(event);
+            return;
+        }
+        final long now = clock.getAsLong();
+        if (!firstSeen(event.getId(), now)) {
+            duplicates.increment();
+            return;
+        }
+        // events of associations are not merged, when recorded or replayed
+        final Object resource = event.getData().getResource();
+        if (!(resource instanceof NodeResource)) {
+            handler.accept(event);
+            return;
+        }
+        final String nodeId = ((NodeResource) resource).getId();
+        if (NODE_UPDATED.equals(event.getType())) {
+            final JsonNode before = objectMapper.valueToTree(event.getData().getResourceBefore());
+            synchronized (held) {
+                final HeldUpdate update = held.get(nodeId);
+                if (update != null) {
+                    update.merge(event, before);
+                    merged.increment();
+                    return;
+                }
+                if (held.size() < capacity) {
+                    held.put(nodeId, new HeldUpdate(nodeId, event, now));
+                    return;
+                }
+            }
+            handler.accept(event);
+        } else {
+            final HeldUpdate update;
+            synchronized (held) {
+                update = held.remove(nodeId);
+            }
+            if (update != null) {
+                handler.accept(merged(update));
+            }
+            handler.accept(event);
+        }
+    }
+
+    private boolean firstSeen(String eventId, long now) {
+        if (eventId == null) {
+            return true;
+        }
+        synchronized (seen) {
+            final Long seenAt = seen.get(eventId);
+            if (seenAt != null && now - seenAt < window) {
+                return false;
+            }
+            // moved to the end, the ids are kept in the order they were seen
+            seen.remove(eventId);
+            seen.put(eventId, now);
+            return true;
+        }
+    }
+
+    /**
+     * Hand the updates held for the whole window to the threads of their nodes, and forget the
+     * expired ids.
+     */
+    void sweep() {
+        final long now = clock.getAsLong();
+        final List<HeldUpdate> expired = new ArrayList<>();
+        synchronized (held) {
+            for (HeldUpdate update : held.values()) {
+                // held in arrival order
+                if (now - update.since < window) {
+                    break;
+                }
+                if (!update.handing) {
+                    update.handing = true;
+                    expired.add(update);
+                }
+            }
+        }
+        expired.forEach(this::handOver);
+        synchronized (seen) {
+            final Iterator<Long> times = seen.values().iterator();
+            while (times.hasNext() && now - times.next() >= window) {
+                times.remove();
+            }
+        }
+    }
+
+    private void handOver(HeldUpdate update) {
+        executor.execute(update.nodeId, () -> {
+            final boolean removed;
+            synchronized (held) {
+                removed = held.remove(update.nodeId, update);
+            }
+            // unless another event of the node handled it meanwhile
+            if (removed) {
+                handler.accept(merged(update));
+            }
+        });
+    }
+
+    /**
+     * Hand every held update to the threads of their nodes, without waiting for the window.
+     */
+    public void flush() {
+        final List<HeldUpdate> updates = new ArrayList<>();
+        synchronized (held) {
+            for (HeldUpdate update : held.values()) {
+                if (!update.handing) {
+                    update.handing = true;
+                    updates.add(update);
+                }
+            }
+        }
+        updates.forEach(this::handOver);
+    }
+
+    /**
+     * The latest update of the node, with the state of every field changed by the update before the
+     * first update of the window. Fields back to their first state are left out.
+     */
+    private RepoEvent<DataAttributes<NodeResource>> merged(HeldUpdate update) {
+        // no longer held, the update does not change anymore
+        if (update.before == null) {
+            return update.event;
+        }
+        try {
+            final ObjectNode tree = objectMapper.valueToTree(update.event);
+            final ObjectNode data = (ObjectNode) tree.get("data");
+            removeUnchanged(update.before, data.get("resource"));
+            data.set("resourceBefore", update.before);
+            return objectMapper.readerFor(RepoEvent.class).readValue(tree);
+        } catch (IOException | RuntimeException ex) {
+            return update.event;
+        }
+    }
+
+    /**
+     * Keep the earliest state of every field.
+     */
+    static void mergeBefore(ObjectNode merged, JsonNode before) {
+        before.fields().forEachRemaining(field -> {
+            final JsonNode existing = merged.get(field.getKey());
+            if (existing == null) {
+                merged.set(field.getKey(), field.getValue().deepCopy());
+            } else if (existing.isObject() && field.getValue().isObject()) {
+                // properties changed by different updates
+                mergeBefore((ObjectNode) existing, field.getValue());
+            }
+        });
+    }
+
+    static void removeUnchanged(ObjectNode before, JsonNode after) {
+        final Iterator<Map.Entry<String, JsonNode>> fields = before.fields();
+        while (fields.hasNext()) {
+            final Map.Entry<String, JsonNode> field = fields.next();
+            final JsonNode current = after != null ? after.get(field.getKey()) : null;
+            if (field.getValue().equals(current)) {
+                fields.remove();
+            } else if (field.getValue().isObject() && current != null && current.isObject()) {
+                removeUnchanged((ObjectNode) field.getValue(), current);
+                if (field.getValue().size() == 0) {
+                    fields.remove();
+                }
+            }
+        }
+    }
+
+    @Override
+    public void start() {
+    }
+
+    /**
+     * Held updates are handled before the executor stops.
+     */
+    @Override
+    public synchronized void stop() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+            flush();
+            if (duplicates.sum() > 0 || merged.sum() > 0) {
+                System.err.printf("%d duplicate events dropped, %d updates merged%n", duplicates.sum(), merged.sum());
+            }
+            sweeper = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return sweeper != null;
+    }
+
+    /**
+     * Stopped after the message driven endpoints and before the executor.
+     */
+    @Override
+    public int getPhase() {
+        return 1;
+    }
+
+    private final class HeldUpdate {
+
+        final String nodeId;
+        final long since;
+        // guarded by the map of held updates
+        RepoEvent<DataAttributes<NodeResource>> event;
+        ObjectNode before;
+        boolean handing;
+
+        HeldUpdate(String nodeId, RepoEvent<DataAttributes<NodeResource>> event, long since) {
+            this.nodeId = nodeId;
+            this.event = event;
+            this.since = since;
+        }
+
+        void merge(RepoEvent<DataAttributes<NodeResource>> next, JsonNode nextBefore) {
+            if (before == null) {
+                before = objectMapper.createObjectNode();
+                mergeBefore(before, objectMapper.valueToTree(event.getData().getResourceBefore()));
+            }
+            mergeBefore(before, nextBefore);
+            event = next;
+        }
+    }
+}
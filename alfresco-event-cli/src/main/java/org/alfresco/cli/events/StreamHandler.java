@@ -0,0 +1,49 @@
+/*
+ * Copyright 2005-2020 Alfresco Software, Ltd. All rights reserved.
+ * License rights for this program may be obtained from Alfresco Software, Ltd.
+ * pursuant to a written agreement and any use of this program without such an
+ * agreement is prohibited.
+ */
+package org.alfresco.cli.events;
+
+import java.util.function.Consumer;
+import org.alfresco.event.sdk.model.v1.model.DataAttributes;
+import org.alfresco.event.sdk.model.v1.model.NodeResource;
+import org.alfresco.event.sdk.model.v1.model.RepoEvent;
+import org.springframework.stereotype.Component;
+
+/**
+ * Last stage of the event flow, receiving the events accepted by the {@link org.alfresco.cli.filters.StreamFilter}.
+ * The running command sets what is done with them: printing, recording...
+ */
+@Component
+public class StreamHandler implements Consumer<RepoEvent<DataAttributes<NodeResource>>> {
+
+    private static final Consumer<RepoEvent<DataAttributes<NodeResource>>> NONE = (event -> {});
+
+    private volatile Consumer<RepoEvent<DataAttributes<NodeResource>>> handler = NONE;
+
+    @Override
+    public void accept(RepoEvent<DataAttributes<NodeResource>> event) {
+        handler.accept(event);
+    }
+
+    public void setHandler(Consumer<RepoEvent<DataAttributes<NodeResource>>> handler) {
+        this.handler = handler;
+    }
+
+    /**
+     * Ignore the events from now on.
+     */
+    public void stop() {
+        this.handler = NONE;
+    }
+
+    /**
+     * Whether a command is handling the events, which keeps the application running once the
+     * command has been executed.
+     */
+    public boolean isStarted() {
+        return handler != NONE;
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2005-2020 Alfresco Software, Ltd. All rights reserved.
+ * License rights for this program may be obtained from Alfresco Software, Ltd.
+ * pursuant to a written agreement and any use of this program without such an
+ * agreement is prohibited.
+ */
+package org.alfresco.cli.events;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs tasks on a fixed set of threads, each one with its own queue. Tasks with the same key always
+ * run on the same thread, so the events of a node are handled in the order they were received while
+ * the events of different nodes are handled in parallel.
+ *
+ * Submitting waits while the queue of the thread is full. The threads are stopped after the JMS
+ * consumers, once every queued task has run.
+ */
+@Component
+public class StripedExecutor implements SmartLifecycle {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StripedExecutor.class);
+    private static final Runnable STOP = () -> {};
+
+    private final Lane[] lanes;
+    private final AtomicLong pending = new AtomicLong();
+    private final Lock idleLock = new ReentrantLock();
+    private final Condition idle = idleLock.newCondition();
+    private volatile boolean running;
+
+    StripedExecutor(@Value("${event.handler.threads:0}") int threads,
+            @Value("${event.handler.queue.capacity:1024}") int capacity) {
+        final int count = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.lanes = new Lane[count];
+        for (int i = 0; i < count; i++) {
+            lanes[i] = new Lane("event-handler-" + i, capacity);
+        }
+    }
+
+    /**
+     * Run the task after the previous tasks with the same key.
+     */
+    public void execute(Object key, Runnable task) {
+        final int hash = key != null ? key.hashCode() : 0;
+        // spread the bits, as HashMap does, before taking the lane
+        final Lane lane = lanes[((hash ^ (hash >>> 16)) & Integer.MAX_VALUE) % lanes.length];
+        pending.incrementAndGet();
+        try {
+            lane.queue.put(task);
+        } catch (InterruptedException ex) {
+            done();
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queuing an event", ex);
+        }
+    }
+
+    /**
+     * Wait until every submitted task has run.
+     */
+    public void awaitIdle() throws InterruptedException {
+        idleLock.lock();
+        try {
+            while (pending.get() > 0) {
+                idle.await();
+            }
+        } finally {
+            idleLock.unlock();
+        }
+    }
+
+    private void done() {
+        // the lock is only taken by the last task, when someone may be waiting
+        if (pending.decrementAndGet() == 0) {
+            idleLock.lock();
+            try {
+                idle.signalAll();
+            } finally {
+                idleLock.unlock();
+            }
+        }
+    }
+
+    public int getThreads() {
+        return lanes.length;
+    }
+
+    @Override
+    public void start() {
+        for (Lane lane : lanes) {
+            lane.thread.start();
+        }
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        for (Lane lane : lanes) {
+            try {
+                lane.queue.put(STOP);
+                lane.thread.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Started before and stopped after the message driven endpoints.
+     */
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    private final class Lane {
+
+        final BlockingQueue<Runnable> queue;
+        final Thread thread;
+
+        Lane(String name, int capacity) {
+            this.queue = new ArrayBlockingQueue<>(capacity);
+            this.thread = new Thread(this::run, name);
+            this.thread.setDaemon(true);
+        }
+
+        private void run() {
+            try {
+                Runnable task;
+                while ((task = queue.take()) != STOP) {
+                    try {
+                        task.run();
+                    } catch (RuntimeException ex) {
+                        LOGGER.error("Event can not be handled", ex);
+                    } finally {
+                        done();
+                    }
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
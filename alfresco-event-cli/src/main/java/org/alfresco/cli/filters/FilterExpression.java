@@ -0,0 +1,463 @@
+/*
+ * Copyright 2005-2020 Alfresco Software, Ltd. All rights reserved.
+ * License rights for this program may be obtained from Alfresco Software, Ltd.
+ * pursuant to a written agreement and any use of this program without such an
+ * agreement is prohibited.
+ */
+package org.alfresco.cli.filters;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import org.alfresco.event.sdk.handling.filter.EventFilter;
+import org.alfresco.event.sdk.model.v1.model.DataAttributes;
+import org.alfresco.event.sdk.model.v1.model.EventType;
+import org.alfresco.event.sdk.model.v1.model.NodeResource;
+import org.alfresco.event.sdk.model.v1.model.RepoEvent;
+import org.alfresco.event.sdk.model.v1.model.Resource;
+
+/**
+ * Compiles filter expressions into a tree of {@link EventFilter}s, once, before events are received.
+ *
+ * <pre>
+ * type in (NODE_CREATED, NODE_UPDATED) and nodeType = 'cm:content' and mimeType like 'image/%' and under('/Sites/x')
+ * </pre>
+ *
+ * Conditions compare the event type or a property of the node ('id', 'name', 'nodeType', 'mimeType'
+ * or 'user') with '=', '!=', 'in (...)' or 'like', where '%' matches any text and '_' any character.
+ * 'under(...)' accepts the events of nodes below any of the given folders. Conditions are combined
+ * with 'and', 'or', 'not' and parentheses.
+ *
+ * The operands of every 'and' and 'or' are evaluated cheapest first, so the event type is checked
+ * before the properties of the node, and these before the hierarchy of the node.
+ */
+public final class FilterExpression {
+
+    private static final int TYPE_COST = 1;
+    private static final int PROPERTY_COST = 2;
+    private static final int LIKE_COST = 4;
+    private static final int HIERARCHY_COST = 16;
+
+    private final String expression;
+    private final Function<String, String> nodeIdResolver;
+    private final List<String> tokens;
+    private int position;
+
+    private FilterExpression(String expression, Function<String, String> nodeIdResolver) {
+        this.expression = expression;
+        this.nodeIdResolver = nodeIdResolver;
+        this.tokens = tokenize(expression);
+    }
+
+    /**
+     * Compile an expression.
+     *
+     * @param nodeIdResolver resolves the folders of 'under(...)', given as ids or paths, into node ids
+     * @throws IllegalArgumentException when the expression is not valid
+     */
+    public static EventFilter parse(String expression, Function<String, String> nodeIdResolver) {
+        final FilterExpression parser = new FilterExpression(expression, nodeIdResolver);
+        final Node filter = parser.parseOr();
+        if (parser.position < parser.tokens.size()) {
+            throw parser.error("Unexpected '" + parser.tokens.get(parser.position) + "'");
+        }
+        return filter;
+    }
+
+    private Node parseOr() {
+        final List<Node> operands = new ArrayList<>();
+        operands.add(parseAnd());
+        while (accept("or")) {
+            operands.add(parseAnd());
+        }
+        return operands.size() == 1 ? operands.get(0) : new Any(operands);
+    }
+
+    private Node parseAnd() {
+        final List<Node> operands = new ArrayList<>();
+        operands.add(parseNot());
+        while (accept("and")) {
+            operands.add(parseNot());
+        }
+        return operands.size() == 1 ? operands.get(0) : new All(operands);
+    }
+
+    private Node parseNot() {
+        if (accept("not")) {
+            return new Not(parseNot());
+        }
+        return parseCondition();
+    }
+
+    private Node parseCondition() {
+        if (accept("(")) {
+            final Node node = parseOr();
+            expect(")");
+            return node;
+        }
+        final String name = next("a condition");
+        if (name.equalsIgnoreCase("under")) {
+            expect("(");
+            final Set<String> nodeIds = new HashSet<>();
+            for (String folder : parseValues()) {
+                nodeIds.add(nodeIdResolver.apply(folder));
+            }
+            expect(")");
+            return new Under(ParentNodeFilter.of(nodeIds));
+        }
+        final Property property = Property.of(name);
+        if (property == null && !name.equalsIgnoreCase("type")) {
+            throw error("Unknown property '" + name + "'");
+        }
+        final boolean negated = accept("!=");
+        final Set<String> values = new HashSet<>();
+        if (negated || accept("=")) {
+            values.add(parseValue());
+        } else if (accept("in")) {
+            expect("(");
+            values.addAll(parseValues());
+            expect(")");
+        } else if (accept("like")) {
+            if (property == null) {
+                throw error("'like' can not be used with the event type");
+            }
+            return new Like(property, parseValue());
+        } else {
+            throw error("Expected '=', '!=', 'in' or 'like' after '" + name + "'");
+        }
+        final Node node = property != null ? new In(property, values) : new TypeIn(values);
+        return negated ? new Not(node) : node;
+    }
+
+    private List<String> parseValues() {
+        final List<String> values = new ArrayList<>();
+        values.add(parseValue());
+        while (accept(",")) {
+            values.add(parseValue());
+        }
+        return values;
+    }
+
+    private String parseValue() {
+        final String token = next("a value");
+        if (token.startsWith("'") || token.startsWith("\"")) {
+            final String quote = token.substring(0, 1);
+            return token.substring(1, token.length() - 1).replace(quote + quote, quote);
+        }
+        if (!Character.isLetterOrDigit(token.charAt(0)) && token.charAt(0) != '_') {
+            throw error("Expected a value instead of '" + token + "'");
+        }
+        return token;
+    }
+
+    private boolean accept(String token) {
+        if (position < tokens.size() && tokens.get(position).equalsIgnoreCase(token)) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    private void expect(String token) {
+        if (!accept(token)) {
+            throw error("Expected '" + token + "'");
+        }
+    }
+
+    private String next(String expected) {
+        if (position >= tokens.size()) {
+            throw error("Expected " + expected);
+        }
+        return tokens.get(position++);
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " in filter: " + expression);
+    }
+
+    /**
+     * Split the expression into words, quoted strings, operators and punctuation.
+     */
+    private static List<String> tokenize(String expression) {
+        final List<String> tokens = new ArrayList<>();
+        int i = 0;
+        while (i < expression.length()) {
+            final char c = expression.charAt(i);
+            int end = i + 1;
+            if (Character.isWhitespace(c)) {
+                i++;
+                continue;
+            } else if (c == '\'' || c == '"') {
+                // quotes are escaped by doubling them
+                while (end < expression.length()
+                        && (expression.charAt(end) != c || (end + 1 < expression.length() && expression.charAt(end + 1) == c))) {
+                    end += expression.charAt(end) == c ? 2 : 1;
+                }
+                if (end >= expression.length()) {
+                    throw new IllegalArgumentException("Unterminated string in filter: " + expression);
+                }
+                end++;
+            } else if (c == '!' && end < expression.length() && expression.charAt(end) == '=') {
+                end++;
+            } else if (Character.isLetterOrDigit(c) || c == '_') {
+                while (end < expression.length() && isWordPart(expression.charAt(end))) {
+                    end++;
+                }
+            } else if ("(),=".indexOf(c) < 0) {
+                throw new IllegalArgumentException("Unexpected '" + c + "' in filter: " + expression);
+            }
+            tokens.add(expression.substring(i, end));
+            i = end;
+        }
+        return tokens;
+    }
+
+    private static boolean isWordPart(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == ':' || c == '.' || c == '-';
+    }
+
+    private static NodeResource nodeOf(RepoEvent<DataAttributes<Resource>> event) {
+        final DataAttributes<Resource> data = event.getData();
+        return data != null && data.getResource() instanceof NodeResource ? (NodeResource) data.getResource() : null;
+    }
+
+    /**
+     * Properties of the node that can be used in conditions.
+     */
+    private enum Property {
+        ID("id", NodeResource::getId),
+        NAME("name", NodeResource::getName),
+        NODE_TYPE("nodeType", NodeResource::getNodeType),
+        MIME_TYPE("mimeType", node -> node.getContent() != null ? node.getContent().getMimeType() : null),
+        USER("user", node -> node.getModifiedByUser() != null ? node.getModifiedByUser().getId() : null);
+
+        private final String name;
+        private final Function<NodeResource, String> getter;
+
+        Property(String name, Function<NodeResource, String> getter) {
+            this.name = name;
+            this.getter = getter;
+        }
+
+        String get(RepoEvent<DataAttributes<Resource>> event) {
+            final NodeResource node = nodeOf(event);
+            return node != null ? getter.apply(node) : null;
+        }
+
+        static Property of(String name) {
+            for (Property property : values()) {
+                if (property.name.equalsIgnoreCase(name)) {
+                    return property;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Node of the compiled expression, with the relative cost of its evaluation.
+     */
+    private abstract static class Node implements EventFilter {
+
+        abstract int cost();
+    }
+
+    private static final class TypeIn extends Node {
+
+        private final Set<String> types = new HashSet<>();
+
+        TypeIn(Set<String> names) {
+            for (String name : names) {
+                try {
+                    types.add(EventType.valueOf(name.toUpperCase(Locale.ROOT)).getType());
+                } catch (IllegalArgumentException ex) {
+                    throw new IllegalArgumentException("Unknown event type '" + name + "'. E.g: NODE_CREATED, NODE_UPDATED, NODE_DELETED");
+                }
+            }
+        }
+
+        @Override
+        public boolean test(RepoEvent<DataAttributes<Resource>> event) {
+            return types.contains(event.getType());
+        }
+
+        @Override
+        int cost() {
+            return TYPE_COST;
+        }
+    }
+
+    private static final class In extends Node {
+
+        private final Property property;
+        private final Set<String> values;
+
+        In(Property property, Set<String> values) {
+            this.property = property;
+            this.values = values;
+        }
+
+        @Override
+        public boolean test(RepoEvent<DataAttributes<Resource>> event) {
+            final String value = property.get(event);
+            return value != null && values.contains(value);
+        }
+
+        @Override
+        int cost() {
+            return PROPERTY_COST;
+        }
+    }
+
+    private static final class Like extends Node {
+
+        private final Property property;
+        private final Predicate<String> matcher;
+
+        Like(Property property, String pattern) {
+            this.property = property;
+            this.matcher = compile(pattern);
+        }
+
+        /**
+         * Plain prefixes, the usual case with mime types, are checked without a regular expression.
+         */
+        private static Predicate<String> compile(String pattern) {
+            if (pattern.endsWith("%")) {
+                final String prefix = pattern.substring(0, pattern.length() - 1);
+                if (prefix.indexOf('%') < 0 && prefix.indexOf('_') < 0) {
+                    return value -> value.startsWith(prefix);
+                }
+            }
+            final StringBuilder regex = new StringBuilder();
+            for (String literal : pattern.split("(?=[%_])|(?<=[%_])")) {
+                if (literal.equals("%")) {
+                    regex.append(".*");
+                } else if (literal.equals("_")) {
+                    regex.append('.');
+                } else {
+                    regex.append(Pattern.quote(literal));
+                }
+            }
+            return Pattern.compile(regex.toString(), Pattern.DOTALL).asMatchPredicate();
+        }
+
+        @Override
+        public boolean test(RepoEvent<DataAttributes<Resource>> event) {
+            final String value = property.get(event);
+            return value != null && matcher.test(value);
+        }
+
+        @Override
+        int cost() {
+            return LIKE_COST;
+        }
+    }
+
+    private static final class Under extends Node {
+
+        private final ParentNodeFilter filter;
+
+        Under(ParentNodeFilter filter) {
+            this.filter = filter;
+        }
+
+        @Override
+        public boolean test(RepoEvent<DataAttributes<Resource>> event) {
+            return nodeOf(event) != null && filter.test(event);
+        }
+
+        @Override
+        int cost() {
+            return HIERARCHY_COST;
+        }
+    }
+
+    private static final class Not extends Node {
+
+        private final Node operand;
+
+        Not(Node operand) {
+            this.operand = operand;
+        }
+
+        @Override
+        public boolean test(RepoEvent<DataAttributes<Resource>> event) {
+            return !operand.test(event);
+        }
+
+        @Override
+        int cost() {
+            return operand.cost();
+        }
+    }
+
+    /**
+     * Operands of 'and' and 'or', sorted by cost. The sort is stable, so operands of the same cost
+     * keep the order in which they were written.
+     */
+    private static Node[] sorted(List<Node> operands) {
+        final Node[] sorted = operands.toArray(new Node[0]);
+        Arrays.sort(sorted, Comparator.comparingInt(Node::cost));
+        return sorted;
+    }
+
+    private static final class All extends Node {
+
+        private final Node[] operands;
+        private final int cost;
+
+        All(List<Node> operands) {
+            this.operands = sorted(operands);
+            this.cost = operands.stream().mapToInt(Node::cost).sum();
+        }
+
+        @Override
+        public boolean test(RepoEvent<DataAttributes<Resource>> event) {
+            for (Node operand : operands) {
+                if (!operand.test(event)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        int cost() {
+            return cost;
+        }
+    }
+
+    private static final class Any extends Node {
+
+        private final Node[] operands;
+        private final int cost;
+
+        Any(List<Node> operands) {
+            this.operands = sorted(operands);
+            this.cost = operands.stream().mapToInt(Node::cost).sum();
+        }
+
+        @Override
+        public boolean test(RepoEvent<DataAttributes<Resource>> event) {
+            for (Node operand : operands) {
+                if (operand.test(event)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        int cost() {
+            return cost;
+        }
+    }
+}
@@ -16,6 +16,7 @@
 package org.alfresco.cli.filters;
 
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
@@ -30,30 +31,51 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * {@link EventFilter} that checks if an event makes reference to a descendant of a specific node
+ * {@link EventFilter} that checks if an event makes reference to a descendant of any of a set of nodes.
+ * Every element of the hierarchy of the event is looked up once in a hashed set, so the cost does not
+ * depend on the number of parent nodes.
  */
 public class ParentNodeFilter extends AbstractEventFilter {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(org.alfresco.event.sdk.handling.filter.MimeTypeFilter.class);
 
-    private final String parentNodeId;
+    private final Set<String> parentNodeIds;
 
-    private ParentNodeFilter(final String parentNodeId) {
-        this.parentNodeId = parentNodeId;
+    private ParentNodeFilter(final Set<String> parentNodeIds) {
+        this.parentNodeIds = parentNodeIds;
     }
 
     /**
-     * Obtain a {@link ParentNodeFilter} for a specific parent node id.
+     * Obtain a {@link ParentNodeFilter} for one or more parent node ids.
      */
-    public static ParentNodeFilter of(final String parentNodeId) {
-        Objects.requireNonNull(parentNodeId);
-        return new ParentNodeFilter(parentNodeId);
+    public static ParentNodeFilter of(final String... parentNodeIds) {
+        return of(Arrays.asList(parentNodeIds));
+    }
+
+    /**
+     * Obtain a {@link ParentNodeFilter} for a collection of parent node ids.
+     */
+    public static ParentNodeFilter of(final Collection<String> parentNodeIds) {
+        parentNodeIds.forEach(Objects::requireNonNull);
+        return new ParentNodeFilter(new HashSet<>(parentNodeIds));
     }
 
     @Override
     public boolean test(final RepoEvent<DataAttributes<Resource>> event) {
-        LOGGER.debug("Checking filter for MimeTypes {} and event {}", parentNodeId, event);
+        LOGGER.debug("Checking filter for parent nodes {} and event {}", parentNodeIds, event);
+        // events of associations have no hierarchy
+        if (!(event.getData().getResource() instanceof NodeResource)) {
+            return false;
+        }
         final List<String> primaryHierarchy = ((NodeResource)event.getData().getResource()).getPrimaryHierarchy();
-        return primaryHierarchy != null && primaryHierarchy.contains(parentNodeId);
+        if (primaryHierarchy == null) {
+            return false;
+        }
+        for (String ancestorId : primaryHierarchy) {
+            if (parentNodeIds.contains(ancestorId)) {
+                return true;
+            }
+        }
+        return false;
     }
 }
@@ -15,7 +15,8 @@ import org.springframework.stereotype.Component;
 @Component
 public class StreamFilter implements EventFilter {
 
-    private EventFilter filter = (event -> false);
+    // set by the command thread, read by the event handler threads
+    private volatile EventFilter filter = (event -> false);
 
     @Override
     public boolean test(RepoEvent<DataAttributes<Resource>> repoEvent) {
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2005-2020 Alfresco Software, Ltd. All rights reserved.
+ * License rights for this program may be obtained from Alfresco Software, Ltd.
+ * pursuant to a written agreement and any use of this program without such an
+ * agreement is prohibited.
+ */
+package org.alfresco.cli.journal;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Layout of the event journals: a folder of segments, named after the time they were created so
+ * they sort in recording order.
+ *
+ * Every segment starts with a header (magic number, version, flags) followed by records made of the
+ * length of the payload, the CRC32 of the payload, the time the event was received in milliseconds
+ * and the payload: the JSON of the event, deflated when the compressed flag is set.
+ */
+final class Journal {
+
+    static final int MAGIC = 0x414c464a; // ALFJ
+    static final byte VERSION = 1;
+    static final byte COMPRESSED = 1;
+    static final int SEGMENT_HEADER_SIZE = 8;
+    static final int RECORD_HEADER_SIZE = 16;
+    static final String SEGMENT_SUFFIX = ".journal";
+
+    private Journal() {
+    }
+
+    static String segmentName(long createdAt) {
+        return String.format("%016d%s", createdAt, SEGMENT_SUFFIX);
+    }
+
+    /**
+     * Segments of a journal folder in recording order, or the file itself when it is a segment.
+     */
+    static List<Path> segments(Path journal) throws IOException {
+        if (!Files.isDirectory(journal)) {
+            return Collections.singletonList(journal);
+        }
+        try (Stream<Path> files = Files.list(journal)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2005-2020 Alfresco Software, Ltd. All rights reserved.
+ * License rights for this program may be obtained from Alfresco Software, Ltd.
+ * pursuant to a written agreement and any use of this program without such an
+ * agreement is prohibited.
+ */
+package org.alfresco.cli.journal;
+
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.zip.CRC32;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Reads the records of a journal, segment by segment, from memory mapped files.
+ *
+ * Only the record headers are read while moving through the journal: the payload of the current
+ * record is checked against its CRC, and decoded only if {@link #event()} is called. Records that do
+ * not match their CRC are skipped, and an incomplete record ends its segment, as left by a writer
+ * that did not stop cleanly.
+ */
+public class JournalReader implements Closeable {
+
+    private final Iterator<Path> segments;
+    private final Inflater inflater = new Inflater();
+    private final CRC32 crc = new CRC32();
+    private MappedByteBuffer segment;
+    private boolean compressed;
+    private ByteBuffer payload;
+    private long timestamp;
+    private long corrupted;
+    private long bytes;
+
+    public JournalReader(Path journal) throws IOException {
+        this.segments = Journal.segments(journal).iterator();
+    }
+
+    /**
+     * Move to the next valid record.
+     *
+     * @return false at the end of the journal
+     */
+    public boolean next() throws IOException {
+        while (true) {
+            if (segment == null || segment.remaining() < Journal.RECORD_HEADER_SIZE) {
+                if (segment != null && segment.hasRemaining()) {
+                    corrupted++;
+                }
+                if (!segments.hasNext()) {
+                    return false;
+                }
+                open(segments.next());
+                continue;
+            }
+            final int length = segment.getInt();
+            final int checksum = segment.getInt();
+            timestamp = segment.getLong();
+            if (length < 0 || length > segment.remaining()) {
+                corrupted++;
+                segment.position(segment.limit());
+                continue;
+            }
+            payload = segment.slice();
+            payload.limit(length);
+            segment.position(segment.position() + length);
+            bytes += Journal.RECORD_HEADER_SIZE + length;
+            crc.reset();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() == checksum) {
+                return true;
+            }
+            corrupted++;
+        }
+    }
+
+    private void open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // the mapping stays valid once the channel is closed
+            segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (segment.remaining() < Journal.SEGMENT_HEADER_SIZE || segment.getInt() != Journal.MAGIC) {
+            throw new IOException(file + " is not an event journal");
+        }
+        final byte version = segment.get();
+        if (version != Journal.VERSION) {
+            throw new IOException(file + " has an unsupported version " + version);
+        }
+        compressed = (segment.get() & Journal.COMPRESSED) != 0;
+        segment.getShort();
+        bytes += Journal.SEGMENT_HEADER_SIZE;
+    }
+
+    /**
+     * Time the current event was received, in milliseconds.
+     */
+    public long timestamp() {
+        return timestamp;
+    }
+
+    /**
+     * JSON of the current event, read from the mapped segment.
+     */
+    public InputStream event() {
+        final InputStream in = new ByteBufferBackedInputStream(payload.duplicate());
+        if (!compressed) {
+            return in;
+        }
+        inflater.reset();
+        return new InflaterInputStream(in, inflater);
+    }
+
+    /**
+     * Records skipped because they are incomplete or do not match their CRC.
+     */
+    public long getCorrupted() {
+        return corrupted;
+    }
+
+    /**
+     * Bytes of the journal read so far.
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    @Override
+    public void close() {
+        inflater.end();
+        segment = null;
+    }
+}
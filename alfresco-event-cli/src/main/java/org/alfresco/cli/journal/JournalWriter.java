@@ -0,0 +1,249 @@
+/*
+ * Copyright 2005-2020 Alfresco Software, Ltd. All rights reserved.
+ * License rights for this program may be obtained from Alfresco Software, Ltd.
+ * pursuant to a written agreement and any use of this program without such an
+ * agreement is prohibited.
+ */
+package org.alfresco.cli.journal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Appends events to a segmented journal from a dedicated thread.
+ *
+ * Events are queued by the consumers and written in batches: every batch is encoded into a direct
+ * buffer and written with a single channel write, and the segment is synced to disk at most once per
+ * sync interval, whatever the number of events written in between. Segments are rotated when they
+ * reach their maximum size or age. See {@link Journal} for the layout.
+ */
+public class JournalWriter implements Closeable {
+
+    private static final int BUFFER_SIZE = 1024 * 1024;
+    private static final int MAX_BATCH = 4096;
+    private static final long POLL_WAIT = 10;
+
+    private final Path directory;
+    private final boolean compress;
+    private final long segmentSize;
+    private final long rotateInterval;
+    private final long syncInterval;
+    private final BlockingQueue<Entry> queue;
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    private final CRC32 crc = new CRC32();
+    private final AtomicLong records = new AtomicLong();
+    private final AtomicLong bytes = new AtomicLong();
+    private final Thread thread;
+    private volatile boolean running = true;
+    private volatile IOException failure;
+
+    // only used by the writer thread once started
+    private ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private FileChannel segment;
+    private long segmentCreated;
+    private long segmentBytes;
+    private long lastSync;
+    private boolean unsynced;
+
+    /**
+     * @param segmentSize maximum bytes of a segment
+     * @param rotateInterval maximum milliseconds between the creation of a segment and the next one
+     * @param syncInterval maximum milliseconds written events stay unsynced, 0 to sync every batch
+     * @param capacity events queued before the consumers have to wait for the writer
+     */
+    public JournalWriter(Path directory, boolean compress, long segmentSize, long rotateInterval, long syncInterval,
+            int capacity) throws IOException {
+        this.directory = directory;
+        this.compress = compress;
+        this.segmentSize = segmentSize;
+        this.rotateInterval = rotateInterval;
+        this.syncInterval = syncInterval;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        Files.createDirectories(directory);
+        openSegment();
+        this.thread = new Thread(this::run, "journal-writer");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Queue the JSON of an event, waiting while the queue is full.
+     *
+     * @param timestamp milliseconds when the event was received
+     */
+    public void append(long timestamp, byte[] event) {
+        if (failure != null) {
+            throw new IllegalStateException("Journal can not be written", failure);
+        }
+        try {
+            queue.put(new Entry(timestamp, event));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while recording an event", ex);
+        }
+    }
+
+    public long getRecords() {
+        return records.get();
+    }
+
+    public long getBytes() {
+        return bytes.get();
+    }
+
+    private void run() {
+        final List<Entry> batch = new ArrayList<>(MAX_BATCH);
+        try {
+            while (running || !queue.isEmpty()) {
+                final Entry first = queue.poll(POLL_WAIT, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, MAX_BATCH - 1);
+                }
+                for (Entry entry : batch) {
+                    if (segmentBytes + buffer.position() >= segmentSize) {
+                        rotate();
+                    }
+                    encode(entry);
+                }
+                batch.clear();
+                flush();
+                final long now = System.currentTimeMillis();
+                if (unsynced && now - lastSync >= syncInterval) {
+                    segment.force(false);
+                    unsynced = false;
+                    lastSync = now;
+                }
+                if (segmentBytes > Journal.SEGMENT_HEADER_SIZE && now - segmentCreated >= rotateInterval) {
+                    rotate();
+                }
+            }
+            closeSegment();
+        } catch (IOException ex) {
+            failure = ex;
+            queue.clear();
+            System.err.println("Journal can not be written: " + ex.getMessage());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Add a record to the buffer, writing the buffer first if the record does not fit.
+     */
+    private void encode(Entry entry) throws IOException {
+        final byte[] payload = entry.event;
+        // deflated data may be slightly larger than the input when it does not compress
+        final int bound = compress ? payload.length + (payload.length >> 12) + (payload.length >> 14) + 64 : payload.length;
+        if (buffer.remaining() < Journal.RECORD_HEADER_SIZE + bound) {
+            flush();
+            if (buffer.capacity() < Journal.RECORD_HEADER_SIZE + bound) {
+                buffer = ByteBuffer.allocateDirect(Journal.RECORD_HEADER_SIZE + bound);
+            }
+        }
+        final int start = buffer.position();
+        buffer.position(start + Journal.RECORD_HEADER_SIZE);
+        if (compress) {
+            deflater.reset();
+            deflater.setInput(payload);
+            deflater.finish();
+            while (!deflater.finished()) {
+                deflater.deflate(buffer);
+            }
+        } else {
+            buffer.put(payload);
+        }
+        final int end = buffer.position();
+        crc.reset();
+        crc.update(buffer.duplicate().position(start + Journal.RECORD_HEADER_SIZE).limit(end));
+        buffer.putInt(start, end - start - Journal.RECORD_HEADER_SIZE);
+        buffer.putInt(start + 4, (int) crc.getValue());
+        buffer.putLong(start + 8, entry.timestamp);
+        records.incrementAndGet();
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            final int written = segment.write(buffer);
+            segmentBytes += written;
+            bytes.addAndGet(written);
+            unsynced = true;
+        }
+        buffer.clear();
+    }
+
+    private void rotate() throws IOException {
+        closeSegment();
+        openSegment();
+    }
+
+    private void openSegment() throws IOException {
+        // named after the creation time, one millisecond after the previous one if needed
+        final long now = Math.max(System.currentTimeMillis(), segmentCreated + 1);
+        segment = FileChannel.open(directory.resolve(Journal.segmentName(now)), StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.WRITE);
+        final ByteBuffer header = ByteBuffer.allocate(Journal.SEGMENT_HEADER_SIZE)
+                .putInt(Journal.MAGIC)
+                .put(Journal.VERSION)
+                .put(compress ? Journal.COMPRESSED : 0)
+                .putShort((short) 0);
+        header.flip();
+        while (header.hasRemaining()) {
+            segment.write(header);
+        }
+        segmentCreated = now;
+        segmentBytes = Journal.SEGMENT_HEADER_SIZE;
+        bytes.addAndGet(Journal.SEGMENT_HEADER_SIZE);
+        unsynced = true;
+    }
+
+    private void closeSegment() throws IOException {
+        flush();
+        segment.force(false);
+        segment.close();
+        unsynced = false;
+        lastSync = System.currentTimeMillis();
+    }
+
+    /**
+     * Write the queued events, sync and close the current segment.
+     */
+    @Override
+    public void close() throws IOException {
+        running = false;
+        try {
+            thread.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        deflater.end();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private static final class Entry {
+
+        final long timestamp;
+        final byte[] event;
+
+        Entry(long timestamp, byte[] event) {
+            this.timestamp = timestamp;
+            this.event = event;
+        }
+    }
+}
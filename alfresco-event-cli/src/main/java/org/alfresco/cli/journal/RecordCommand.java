@@ -0,0 +1,84 @@
+/*
+ * Copyright 2005-2020 Alfresco Software, Ltd. All rights reserved.
+ * License rights for this program may be obtained from Alfresco Software, Ltd.
+ * pursuant to a written agreement and any use of this program without such an
+ * agreement is prohibited.
+ */
+package org.alfresco.cli.journal;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PreDestroy;
+import org.alfresco.cli.watch.AbstractWatchCommand;
+import org.alfresco.event.sdk.handling.filter.EventFilter;
+import org.alfresco.event.sdk.model.v1.model.DataAttributes;
+import org.alfresco.event.sdk.model.v1.model.NodeResource;
+import org.alfresco.event.sdk.model.v1.model.RepoEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.Parameters;
+
+@Component
+@Command(name = "record", mixinStandardHelpOptions = true, exitCodeOnExecutionException = 44,
+        description = "Record the events to a local journal, to be replayed later")
+public class RecordCommand extends AbstractWatchCommand {
+
+    private static final int QUEUE_CAPACITY = 16 * 1024;
+
+    @Parameters(arity = "0..*", description = "The ids or relative paths of the folders to be recorded. Events of every folder are recorded by default.")
+    List<String> folders = new ArrayList<>();
+
+    @Option(names = {"-o", "--output"}, description = "Folder of the journal segments.")
+    File output = new File("events");
+
+    @Option(names = {"-z", "--compress"}, description = "Deflate the events.")
+    boolean compress = false;
+
+    @Option(names = {"-ss", "--segment-size"}, description = "Maximum size of a segment in megabytes.")
+    long segmentSize = 64;
+
+    @Option(names = {"-ri", "--rotate-interval"}, description = "Maximum seconds of events in a segment.")
+    long rotateInterval = 3600;
+
+    @Option(names = {"-si", "--sync-interval"}, description = "Maximum milliseconds between syncs to disk, 0 to sync every write.")
+    long syncInterval = 100;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    private JournalWriter writer;
+
+    @Override
+    public Integer call() throws IOException {
+        final EventFilter filter = folders.isEmpty() ? (event -> true) : folderFilter(folders);
+        writer = new JournalWriter(output.toPath(), compress, segmentSize * 1024 * 1024,
+                TimeUnit.SECONDS.toMillis(rotateInterval), syncInterval, QUEUE_CAPACITY);
+        watch(filter, this::record);
+        System.err.println("Recording events to " + output);
+        return 0;
+    }
+
+    private void record(RepoEvent<DataAttributes<NodeResource>> event) {
+        // serialized in the consumer thread, written by the journal writer
+        try {
+            writer.append(System.currentTimeMillis(), objectMapper.writeValueAsBytes(event));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+            System.err.printf("%d events recorded to %s (%d bytes)%n", writer.getRecords(), output, writer.getBytes());
+        }
+    }
+}
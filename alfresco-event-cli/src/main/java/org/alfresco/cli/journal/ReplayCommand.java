@@ -0,0 +1,135 @@
+/*
+ * Copyright 2005-2020 Alfresco Software, Ltd. All rights reserved.
+ * License rights for this program may be obtained from Alfresco Software, Ltd.
+ * pursuant to a written agreement and any use of this program without such an
+ * agreement is prohibited.
+ */
+package org.alfresco.cli.journal;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.alfresco.cli.events.ConsoleWriter;
+import org.alfresco.cli.events.EventPrinter;
+import org.alfresco.cli.events.StreamCoalescer;
+import org.alfresco.cli.events.StripedExecutor;
+import org.alfresco.cli.watch.AbstractWatchCommand;
+import org.alfresco.event.sdk.handling.filter.EventFilter;
+import org.alfresco.event.sdk.integration.EventChannels;
+import org.alfresco.event.sdk.model.databind.ObjectMapperFactory;
+import org.alfresco.event.sdk.model.v1.model.RepoEvent;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.integration.jms.JmsMessageDrivenEndpoint;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.stereotype.Component;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.Parameters;
+
+@Component
+@Command(name = "replay", mixinStandardHelpOptions = true, exitCodeOnExecutionException = 44,
+        description = "Replay the events of a recorded journal")
+public class ReplayCommand extends AbstractWatchCommand {
+
+    static final String MAX = "max";
+    static final String ORIGINAL = "original";
+
+    @Parameters(index = "0", description = "Journal folder, or a single segment of a journal.")
+    File journal;
+
+    @Option(names = {"-p", "--pace"},
+            description = "'max' replays the events as fast as possible, 'original' with the delays between them when they were recorded.")
+    String pace = MAX;
+
+    @Option(names = {"-f", "--format"}, description = "Output format. E.g.: 'default' or 'ndjson'.")
+    String format = EventPrinter.DEFAULT;
+
+    @Autowired
+    EventPrinter eventPrinter;
+
+    @Autowired
+    ConsoleWriter consoleWriter;
+
+    @Autowired
+    @Qualifier(EventChannels.MAIN)
+    MessageChannel channel;
+
+    @Autowired
+    ObjectProvider<JmsMessageDrivenEndpoint> endpoints;
+
+    @Autowired
+    StripedExecutor executor;
+
+    @Autowired
+    StreamCoalescer coalescer;
+
+    @Override
+    public Integer call() throws IOException, InterruptedException {
+        if (!MAX.equals(pace) && !ORIGINAL.equals(pace)) {
+            throw new IllegalArgumentException("Unknown pace " + pace);
+        }
+        // events come from the journal only
+        endpoints.forEach(JmsMessageDrivenEndpoint::stop);
+
+        final LongAdder accepted = new LongAdder();
+        eventPrinter.setFormat(format);
+        // no broker to keep up with, every event is printed however fast the journal is read
+        consoleWriter.setDropping(false);
+        // the table only has columns for nodes, the events of associations are only written as JSON
+        final EventFilter filter = EventPrinter.NDJSON.equals(format) ? (event -> true) : nodeEvents();
+        watch(filter, event -> {
+            accepted.increment();
+            eventPrinter.printEvent(event);
+        });
+
+        // same mapper as the events received from the broker
+        final ObjectReader reader = ObjectMapperFactory.createInstance().readerFor(RepoEvent.class);
+        long replayed = 0;
+        final long start = System.nanoTime();
+        try (JournalReader journalReader = new JournalReader(journal.toPath())) {
+            long firstTimestamp = -1;
+            while (journalReader.next()) {
+                if (ORIGINAL.equals(pace)) {
+                    if (firstTimestamp < 0) {
+                        firstTimestamp = journalReader.timestamp();
+                    }
+                    final long delay = TimeUnit.MILLISECONDS.toNanos(journalReader.timestamp() - firstTimestamp)
+                            - (System.nanoTime() - start);
+                    if (delay > 0) {
+                        TimeUnit.NANOSECONDS.sleep(delay);
+                    }
+                }
+                // decoded only when it is its turn, whatever the size of the journal
+                final Object event;
+                try (InputStream in = journalReader.event()) {
+                    event = reader.readValue(in);
+                }
+                channel.send(MessageBuilder.withPayload(event).build());
+                replayed++;
+            }
+            // events are handled by the executor threads, and the updates held by the coalescer after them
+            executor.awaitIdle();
+            coalescer.flush();
+            executor.awaitIdle();
+            printSummary(replayed, accepted.sum(), journalReader, System.nanoTime() - start);
+        } finally {
+            stopWatching();
+        }
+        return 0;
+    }
+
+    private void printSummary(long replayed, long accepted, JournalReader journalReader, long elapsed) {
+        final double seconds = Math.max(elapsed, 1) / 1e9;
+        System.err.printf("%d events replayed, %d accepted, in %.3f s: %.0f events/s, %.1f MB/s%n", replayed,
+                accepted, seconds, replayed / seconds, journalReader.getBytes() / seconds / (1024 * 1024));
+        if (journalReader.getCorrupted() > 0) {
+            System.err.printf("%d corrupted records skipped%n", journalReader.getCorrupted());
+        }
+    }
+}
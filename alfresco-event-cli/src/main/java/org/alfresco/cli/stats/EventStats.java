@@ -0,0 +1,207 @@
+/*
+ * Copyright 2005-2020 Alfresco Software, Ltd. All rights reserved.
+ * License rights for this program may be obtained from Alfresco Software, Ltd.
+ * pursuant to a written agreement and any use of this program without such an
+ * agreement is prohibited.
+ */
+package org.alfresco.cli.stats;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import org.alfresco.cli.events.EventPrinter;
+import org.alfresco.event.sdk.model.v1.model.DataAttributes;
+import org.alfresco.event.sdk.model.v1.model.NodeResource;
+import org.alfresco.event.sdk.model.v1.model.RepoEvent;
+
+/**
+ * Counts the events of a time window, grouped by some of their properties.
+ *
+ * The window is a ring of buckets, each one covering a refresh interval: with one bucket windows are
+ * tumbling, with more they slide one bucket at a time. Events are counted by the consumer threads
+ * without locks, and the current bucket is replaced by the thread printing the table.
+ */
+class EventStats {
+
+    private static final String TOTAL = "TOTAL";
+    private static final String UNKNOWN = "-";
+    private static final String LINE = "----------------------------------------------------------------------------------------------------";
+
+    /**
+     * Properties the events can be grouped by.
+     */
+    enum Dimension {
+        TYPE("type", "EVENT TYPE", event -> EventPrinter.convertEventType(event.getType())),
+        NODE_TYPE("nodeType", "NODE TYPE", event -> event.getData().getResource().getNodeType()),
+        // the id, as compared by the 'user' condition of the filter expressions
+        USER("user", "USER", event -> event.getData().getResource().getModifiedByUser() != null
+                ? event.getData().getResource().getModifiedByUser().getId() : null),
+        // the first element of the hierarchy is the parent
+        FOLDER("folder", "PARENT FOLDER", event -> {
+            final List<String> hierarchy = event.getData().getResource().getPrimaryHierarchy();
+            return hierarchy != null && !hierarchy.isEmpty() ? hierarchy.get(0) : null;
+        });
+
+        private final String name;
+        private final String title;
+        private final Function<RepoEvent<DataAttributes<NodeResource>>, String> key;
+
+        Dimension(String name, String title, Function<RepoEvent<DataAttributes<NodeResource>>, String> key) {
+            this.name = name;
+            this.title = title;
+            this.key = key;
+        }
+
+        static Dimension of(String name) {
+            for (Dimension dimension : values()) {
+                if (dimension.name.equalsIgnoreCase(name)) {
+                    return dimension;
+                }
+            }
+            throw new IllegalArgumentException("Unknown property " + name + ". E.g.: 'type', 'nodeType', 'user' or 'folder'");
+        }
+    }
+
+    private final List<Dimension> dimensions;
+    private final AtomicReferenceArray<Bucket> ring;
+    private final long bucketNanos;
+    private final Map<Dimension, Map<String, AtomicLong>> lastArrivals = new EnumMap<>(Dimension.class);
+    private final AtomicLong lastArrival = new AtomicLong();
+    private volatile int current;
+
+    EventStats(List<Dimension> dimensions, int buckets, long bucketMillis) {
+        this.dimensions = dimensions;
+        this.ring = new AtomicReferenceArray<>(buckets);
+        this.bucketNanos = TimeUnit.MILLISECONDS.toNanos(bucketMillis);
+        for (Dimension dimension : dimensions) {
+            lastArrivals.put(dimension, new ConcurrentHashMap<>());
+        }
+        ring.set(0, new Bucket(dimensions));
+    }
+
+    /**
+     * Count an event received at the given {@link System#nanoTime()}.
+     */
+    void record(RepoEvent<DataAttributes<NodeResource>> event, long now) {
+        final Bucket bucket = ring.get(current);
+        bucket.total.record(now, lastArrival.getAndSet(now));
+        for (Dimension dimension : dimensions) {
+            final String value = dimension.key.apply(event);
+            final String key = value != null ? value : UNKNOWN;
+            final AtomicLong last = lastArrivals.get(dimension).computeIfAbsent(key, k -> new AtomicLong());
+            bucket.stats(dimension, key).record(now, last.getAndSet(now));
+        }
+    }
+
+    /**
+     * Start a new bucket, dropping the oldest one once the window is complete.
+     */
+    void advance() {
+        final int next = (current + 1) % ring.length();
+        ring.set(next, new Bucket(dimensions));
+        current = next;
+    }
+
+    /**
+     * Lines of the tables of the window, with the top keys of every dimension.
+     */
+    List<String> render(int top, long now) {
+        final List<Bucket> buckets = new ArrayList<>(ring.length());
+        for (int i = 0; i < ring.length(); i++) {
+            if (ring.get(i) != null) {
+                buckets.add(ring.get(i));
+            }
+        }
+        final double seconds = buckets.size() * bucketNanos / 1e9;
+        final List<String> lines = new ArrayList<>();
+        lines.add(LINE);
+        lines.add(String.format("%-40s %12s %12s %12s %12s", "LAST " + Math.round(seconds) + " S", "EVENTS", "EVENTS/S",
+                "P50 (MS)", "P99 (MS)"));
+        lines.add(LINE);
+        final Row total = new Row(TOTAL);
+        buckets.forEach(bucket -> total.add(bucket.total));
+        lines.add(total.format(seconds));
+        for (Dimension dimension : dimensions) {
+            final Map<String, Row> rows = new HashMap<>();
+            for (Bucket bucket : buckets) {
+                bucket.keys.get(dimension).forEach((key, stats) -> rows.computeIfAbsent(key, Row::new).add(stats));
+            }
+            lines.add(LINE);
+            lines.add(String.format("%-40s", dimension.title));
+            rows.values().stream()
+                    .sorted(Comparator.comparingLong((Row row) -> row.count).reversed())
+                    .limit(top)
+                    .forEach(row -> lines.add(row.format(seconds)));
+            // keys not seen during the window start again from scratch
+            lastArrivals.get(dimension).values().removeIf(last -> now - last.get() > buckets.size() * bucketNanos);
+        }
+        return lines;
+    }
+
+    private static final class Bucket {
+
+        final KeyStats total = new KeyStats();
+        final Map<Dimension, Map<String, KeyStats>> keys = new EnumMap<>(Dimension.class);
+
+        Bucket(List<Dimension> dimensions) {
+            for (Dimension dimension : dimensions) {
+                keys.put(dimension, new ConcurrentHashMap<>());
+            }
+        }
+
+        KeyStats stats(Dimension dimension, String key) {
+            final Map<String, KeyStats> stats = keys.get(dimension);
+            // existing keys are found without locking
+            final KeyStats existing = stats.get(key);
+            return existing != null ? existing : stats.computeIfAbsent(key, k -> new KeyStats());
+        }
+    }
+
+    private static final class KeyStats {
+
+        final LongAdder count = new LongAdder();
+        final InterArrivalHistogram interArrivals = new InterArrivalHistogram();
+
+        void record(long now, long previous) {
+            count.increment();
+            if (previous != 0) {
+                interArrivals.record(now - previous);
+            }
+        }
+    }
+
+    private static final class Row {
+
+        final String key;
+        final List<InterArrivalHistogram> histograms = new ArrayList<>();
+        long count;
+
+        Row(String key) {
+            this.key = key;
+        }
+
+        void add(KeyStats stats) {
+            count += stats.count.sum();
+            histograms.add(stats.interArrivals);
+        }
+
+        String format(double seconds) {
+            return String.format("%-40s %12d %12.1f %12s %12s", key, count, count / seconds,
+                    millis(InterArrivalHistogram.percentile(histograms, 0.5)),
+                    millis(InterArrivalHistogram.percentile(histograms, 0.99)));
+        }
+
+        private static String millis(long nanos) {
+            return nanos < 0 ? UNKNOWN : String.format("%.3f", nanos / 1e6);
+        }
+    }
+}
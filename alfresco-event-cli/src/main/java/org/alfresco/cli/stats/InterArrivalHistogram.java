@@ -0,0 +1,81 @@
+/*
+ * Copyright 2005-2020 Alfresco Software, Ltd. All rights reserved.
+ * License rights for this program may be obtained from Alfresco Software, Ltd.
+ * pursuant to a written agreement and any use of this program without such an
+ * agreement is prohibited.
+ */
+package org.alfresco.cli.stats;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram of the nanoseconds between events.
+ *
+ * Values are counted in log-linear buckets: every power of two is split in four, so percentiles are
+ * reported with an error below 25%, using a fixed array whatever the number of values.
+ */
+final class InterArrivalHistogram {
+
+    private static final int SUB_BUCKET_BITS = 2;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // up to 2^48 ns, more than three days
+    private static final int MAX_EXPONENT = 48;
+    private static final int SIZE = (MAX_EXPONENT - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(SIZE);
+
+    void record(long nanos) {
+        counts.incrementAndGet(Math.min(index(Math.max(nanos, 0)), SIZE - 1));
+    }
+
+    static int index(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        final int exponent = 63 - Long.numberOfLeadingZeros(value);
+        final int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    static long lowerBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        final int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        return (long) (SUB_BUCKETS + index % SUB_BUCKETS) << (exponent - SUB_BUCKET_BITS);
+    }
+
+    private static long middle(int index) {
+        return index < SUB_BUCKETS ? index : lowerBound(index) + (lowerBound(index + 1) - lowerBound(index)) / 2;
+    }
+
+    /**
+     * Value below which the given fraction of the values of all the histograms fall.
+     *
+     * @return -1 when there are no values
+     */
+    static long percentile(List<InterArrivalHistogram> histograms, double fraction) {
+        final long[] counts = new long[SIZE];
+        long total = 0;
+        for (InterArrivalHistogram histogram : histograms) {
+            for (int i = 0; i < SIZE; i++) {
+                final long count = histogram.counts.get(i);
+                counts[i] += count;
+                total += count;
+            }
+        }
+        if (total == 0) {
+            return -1;
+        }
+        final long rank = (long) Math.ceil(total * fraction);
+        long seen = 0;
+        for (int i = 0; i < SIZE; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return middle(i);
+            }
+        }
+        return middle(SIZE - 1);
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2005-2020 Alfresco Software, Ltd. All rights reserved.
+ * License rights for this program may be obtained from Alfresco Software, Ltd.
+ * pursuant to a written agreement and any use of this program without such an
+ * agreement is prohibited.
+ */
+package org.alfresco.cli.stats;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PreDestroy;
+import org.alfresco.cli.events.ConsoleWriter;
+import org.alfresco.cli.watch.AbstractWatchCommand;
+import org.alfresco.event.sdk.handling.filter.EventFilter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.Parameters;
+
+@Component
+@Command(name = "stats", mixinStandardHelpOptions = true, exitCodeOnExecutionException = 44,
+        description = "Print the rates of the events by type, node type, user or parent folder")
+public class StatsCommand extends AbstractWatchCommand {
+
+    @Parameters(arity = "0..*", description = "The ids or relative paths of the folders to be watched. Events of every folder are counted by default.")
+    List<String> folders = new ArrayList<>();
+
+    @Option(names = {"-g", "--group-by"}, split = ",",
+            description = "Comma separated properties the events are grouped by: 'type', 'nodeType', 'user' or 'folder'.")
+    List<String> groupBy = Arrays.asList("type", "nodeType");
+
+    @Option(names = {"-w", "--window"}, description = "Seconds of events counted in the tables, a multiple of the refresh interval.")
+    long window = 60;
+
+    @Option(names = {"-r", "--refresh"},
+            description = "Seconds between tables. When equal to the window, every table counts new events only.")
+    long refresh = 10;
+
+    @Option(names = {"-n", "--top"}, description = "Rows printed for every property.")
+    int top = 10;
+
+    @Autowired
+    ConsoleWriter consoleWriter;
+
+    private ScheduledExecutorService scheduler;
+
+    @Override
+    public Integer call() {
+        if (refresh <= 0 || window < refresh || window % refresh != 0) {
+            throw new IllegalArgumentException("The window has to be a multiple of the refresh interval");
+        }
+        final List<EventStats.Dimension> dimensions = new ArrayList<>();
+        for (String name : groupBy) {
+            dimensions.add(EventStats.Dimension.of(name));
+        }
+        final EventStats stats = new EventStats(dimensions, (int) (window / refresh), TimeUnit.SECONDS.toMillis(refresh));
+
+        final EventFilter filter = folders.isEmpty() ? nodeEvents() : folderFilter(folders);
+        watch(filter, event -> stats.record(event, System.nanoTime()));
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            final Thread thread = new Thread(task, "stats");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(() -> {
+            stats.render(top, System.nanoTime()).forEach(consoleWriter::write);
+            stats.advance();
+        }, refresh, refresh, TimeUnit.SECONDS);
+        return 0;
+    }
+
+    @PreDestroy
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+}
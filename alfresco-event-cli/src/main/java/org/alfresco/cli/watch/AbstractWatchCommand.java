@@ -0,0 +1,103 @@
+/*
+ * Copyright 2005-2020 Alfresco Software, Ltd. All rights reserved.
+ * License rights for this program may be obtained from Alfresco Software, Ltd.
+ * pursuant to a written agreement and any use of this program without such an
+ * agreement is prohibited.
+ */
+package org.alfresco.cli.watch;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
+import org.alfresco.cli.events.StreamCoalescer;
+import org.alfresco.cli.events.StreamHandler;
+import org.alfresco.cli.filters.FilterExpression;
+import org.alfresco.cli.filters.ParentNodeFilter;
+import org.alfresco.cli.filters.StreamFilter;
+import org.alfresco.event.sdk.handling.filter.EventFilter;
+import org.alfresco.event.sdk.handling.filter.EventTypeFilter;
+import org.alfresco.event.sdk.model.v1.model.DataAttributes;
+import org.alfresco.event.sdk.model.v1.model.EventType;
+import org.alfresco.event.sdk.model.v1.model.NodeResource;
+import org.alfresco.event.sdk.model.v1.model.RepoEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import picocli.CommandLine.Option;
+
+/**
+ * Base of the commands consuming the events of the repository, with the options selecting them.
+ */
+public abstract class AbstractWatchCommand implements Callable<Integer> {
+
+    @Autowired
+    NodePathResolver nodePathResolver;
+
+    @Autowired
+    StreamFilter streamFilter;
+
+    @Autowired
+    StreamHandler streamHandler;
+
+    @Autowired
+    StreamCoalescer streamCoalescer;
+
+    @Option(names = {"-t", "--event-type"}, description = "Type of event. E.g: NODE_CREATED, NODE_UPDATED, NODE_DELETED")
+    String eventType = null;
+
+    @Option(names = {"-F", "--filter"},
+            description = "Filter expression. E.g.: \"type in (NODE_CREATED, NODE_UPDATED) and mimeType like 'image/%%' and under('/Sites/x')\"")
+    String filterExpression = null;
+
+    @Option(names = {"-dw", "--dedup-window"},
+            description = "Milliseconds during which events with the same id are dropped and the updates of a node are merged into the latest one, with the state of the node before the first one. 0 to handle every event.")
+    long dedupWindow = 0;
+
+    protected String getNodeId(String path) {
+        return nodePathResolver.getNodeId(path);
+    }
+
+    /**
+     * Filter accepting the events of every node, without the events of associations.
+     */
+    protected static EventFilter nodeEvents() {
+        return event -> event.getData() != null && event.getData().getResource() instanceof NodeResource;
+    }
+
+    /**
+     * Filter accepting the descendants of any of the folders, given as ids or paths.
+     */
+    protected EventFilter folderFilter(Collection<String> folders) {
+        // folders sharing ancestors are resolved from the cached ids of the ancestors
+        final Set<String> nodeIds = new HashSet<>();
+        for (String folder : folders) {
+            nodeIds.add(getNodeId(folder));
+        }
+        return ParentNodeFilter.of(nodeIds);
+    }
+
+    /**
+     * Start handling the events accepted by the filter and the event type and filter options. The
+     * options are checked first, as they are cheaper than the hierarchy scan of the folder filter.
+     */
+    protected void watch(EventFilter filter, Consumer<RepoEvent<DataAttributes<NodeResource>>> handler) {
+        if (filterExpression != null) {
+            filter = FilterExpression.parse(filterExpression, this::getNodeId).and(filter);
+        }
+        if(eventType != null) {
+            filter = EventTypeFilter.of(EventType.valueOf(eventType.toUpperCase())).and(filter);
+        }
+
+        streamHandler.setHandler(handler);
+        streamCoalescer.setWindow(dedupWindow);
+        streamFilter.setFilter(filter);
+    }
+
+    /**
+     * Stop handling events, once the command is done with them.
+     */
+    protected void stopWatching() {
+        streamFilter.setFilter(event -> false);
+        streamHandler.stop();
+    }
+}
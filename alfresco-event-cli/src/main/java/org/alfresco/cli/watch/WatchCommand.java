@@ -6,18 +6,19 @@
  */
 package org.alfresco.cli.watch;
 
-import java.util.Collections;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.concurrent.Callable;
 import org.alfresco.cli.filters.ParentNodeFilter;
-import org.alfresco.cli.filters.StreamFilter;
 import org.alfresco.cli.events.EventPrinter;
-import org.alfresco.core.handler.NodesApi;
-import org.alfresco.core.model.NodeEntry;
 import org.alfresco.event.sdk.handling.filter.EventFilter;
-import org.alfresco.event.sdk.handling.filter.EventTypeFilter;
-import org.alfresco.event.sdk.model.v1.model.EventType;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 import picocli.CommandLine.Option;
 import picocli.CommandLine.Command;
@@ -25,11 +26,10 @@ import picocli.CommandLine.Parameters;
 
 @Component
 @Command(name = "watch", description = "Alfresco Content Services commands",
-subcommands = {WatchCommand.FolderCommand.class})
+subcommands = {WatchCommand.FolderCommand.class, WatchCommand.FoldersCommand.class})
 public class WatchCommand implements Callable<Integer> {
 
     private static final String ROOT_PATH = "/";
-    private static final String ROOT_ID = "-root-";
 
     @Override
     public Integer call() {
@@ -39,46 +39,64 @@ public class WatchCommand implements Callable<Integer> {
 
     @Component
     @Command(name = "folder", mixinStandardHelpOptions = true, exitCodeOnExecutionException = 44)
-    static class FolderCommand extends AbstractWatchCommand {
-
-        @Autowired
-        StreamFilter streamFilter;
-
-        @Autowired
-        EventPrinter eventPrinter;
+    static class FolderCommand extends AbstractPrintCommand {
 
         @Parameters(index = "0", description = "The id or relative path of the node to be watched.")
         String folder = ROOT_PATH;
 
-        @Option(names = {"-t", "--event-type"}, description = "Type of event. E.g: NODE_CREATED, NODE_UPDATED, NODE_DELETED")
-        String eventType = null;
-
         @Override
         public Integer call() {
             final String nodeId = getNodeId(folder);
-            EventFilter filter = ParentNodeFilter.of(nodeId);
+            watch(ParentNodeFilter.of(nodeId));
+            return 0;
+        }
+    }
 
-            if(eventType != null) {
-                filter = filter.and(EventTypeFilter.of(EventType.valueOf(eventType.toUpperCase())));
-            }
+    @Component
+    @Command(name = "folders", mixinStandardHelpOptions = true, exitCodeOnExecutionException = 44,
+            description = "Watch several folders with a single consumer")
+    static class FoldersCommand extends AbstractPrintCommand {
+
+        @Parameters(arity = "0..*", description = "The ids or relative paths of the nodes to be watched.")
+        List<String> folders = new ArrayList<>();
+
+        @Option(names = {"-i", "--input"},
+                description = "File with the ids or relative paths of the nodes to be watched, one per line. Lines starting with '#' are ignored.")
+        File input = null;
 
-            streamFilter.setFilter(filter);
+        @Override
+        public Integer call() throws IOException {
+            final Set<String> paths = new LinkedHashSet<>(folders);
+            if (input != null) {
+                for (String line : Files.readAllLines(input.toPath(), StandardCharsets.UTF_8)) {
+                    final String path = line.trim();
+                    if (!path.isEmpty() && !path.startsWith("#")) {
+                        paths.add(path);
+                    }
+                }
+            }
+            if (paths.isEmpty()) {
+                throw new IllegalArgumentException("No folder to be watched");
+            }
+            watch(folderFilter(paths));
             return 0;
         }
     }
 
-    static abstract class AbstractWatchCommand implements Callable<Integer> {
+    static abstract class AbstractPrintCommand extends AbstractWatchCommand {
 
         @Autowired
-        NodesApi nodesApi;
-
-        String getNodeId(String path) {
-            if (path.startsWith(ROOT_PATH)) {
-                ResponseEntity<NodeEntry> responseEntity = nodesApi.getNode(ROOT_ID, null, path, Collections.singletonList("id"));
-                return responseEntity.getBody().getEntry().getId();
-            } else {
-                return path;
-            }
+        EventPrinter eventPrinter;
+
+        @Option(names = {"-f", "--format"}, description = "Output format. E.g.: 'default' or 'ndjson'.")
+        String format = EventPrinter.DEFAULT;
+
+        /**
+         * Start printing the events accepted by the filter and the options.
+         */
+        void watch(EventFilter filter) {
+            eventPrinter.setFormat(format);
+            watch(filter, eventPrinter::printEvent);
         }
     }
 
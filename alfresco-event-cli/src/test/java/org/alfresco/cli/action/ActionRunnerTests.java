@@ -0,0 +1,189 @@
+package org.alfresco.cli.action;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.alfresco.event.sdk.model.databind.ObjectMapperFactory;
+import org.alfresco.event.sdk.model.v1.model.DataAttributes;
+import org.alfresco.event.sdk.model.v1.model.NodeResource;
+import org.alfresco.event.sdk.model.v1.model.RepoEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ActionRunnerTests {
+
+	private static final ObjectMapper OBJECT_MAPPER = ObjectMapperFactory.createInstance();
+
+	@TempDir
+	Path folder;
+
+	private ActionRunner runner(EventAction action, int capacity, long coalesceWindow, int retries) {
+		return new ActionRunner(action, OBJECT_MAPPER, 2, capacity, coalesceWindow, retries, 1,
+				folder.resolve("dead-letter.ndjson"));
+	}
+
+	@Test
+	void eventsOfANodeAreCoalesced() throws IOException {
+		final Map<String, List<String>> runs = new ConcurrentHashMap<>();
+		final ActionRunner runner = runner(event -> runs.computeIfAbsent(event.getData().getResource().getId(),
+				node -> new CopyOnWriteArrayList<>()).add(event.getId()), 10, 500, 0);
+		final List<RepoEvent<DataAttributes<NodeResource>>> events = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			events.add(event("a" + i, "n1", "a.txt"));
+			events.add(event("b" + i, "n2", "b.txt"));
+		}
+		events.forEach(runner::submit);
+		runner.close();
+
+		assertEquals(List.of("a99"), runs.get("n1"));
+		assertEquals(List.of("b99"), runs.get("n2"));
+		assertEquals(10, runner.getAvailableCapacity());
+		assertFalse(Files.exists(folder.resolve("dead-letter.ndjson")));
+	}
+
+	@Test
+	void eventsReceivedWhileRunningRunOnceMore() throws Exception {
+		final CountDownLatch running = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		final CountDownLatch ranTwice = new CountDownLatch(2);
+		final List<String> runs = new CopyOnWriteArrayList<>();
+		final ActionRunner runner = runner(event -> {
+			runs.add(event.getId());
+			running.countDown();
+			release.await();
+			ranTwice.countDown();
+		}, 10, 20, 0);
+		runner.submit(event("e1", "n1", "a.txt"));
+		assertTrue(running.await(10, TimeUnit.SECONDS));
+		runner.submit(event("e2", "n1", "a.txt"));
+		runner.submit(event("e3", "n1", "a.txt"));
+		release.countDown();
+		// closing before the second run is scheduled would dead letter e3
+		assertTrue(ranTwice.await(10, TimeUnit.SECONDS));
+		runner.close();
+
+		assertEquals(List.of("e1", "e3"), runs);
+		assertEquals(10, runner.getAvailableCapacity());
+	}
+
+	@Test
+	void newNodesWaitWhileFull() throws Exception {
+		final CountDownLatch release = new CountDownLatch(1);
+		final ActionRunner runner = runner(event -> release.await(), 1, 20, 0);
+		runner.submit(event("e1", "n1", "a.txt"));
+		// same node, no other permit needed
+		runner.submit(event("e2", "n1", "a.txt"));
+		assertEquals(0, runner.getAvailableCapacity());
+
+		final CountDownLatch submitted = new CountDownLatch(1);
+		final Thread other = new Thread(() -> {
+			runner.submit(event("e3", "n2", "b.txt"));
+			submitted.countDown();
+		});
+		other.start();
+		assertFalse(submitted.await(200, TimeUnit.MILLISECONDS));
+		release.countDown();
+		assertTrue(submitted.await(10, TimeUnit.SECONDS));
+		runner.close();
+
+		assertEquals(1, runner.getAvailableCapacity());
+	}
+
+	@Test
+	void failedActionsAreRetried() throws Exception {
+		final AtomicInteger attempts = new AtomicInteger();
+		final CountDownLatch attempted = new CountDownLatch(2);
+		final ActionRunner runner = runner(event -> {
+			attempted.countDown();
+			if (attempts.incrementAndGet() == 1) {
+				throw new IOException("boom");
+			}
+		}, 10, 20, 3);
+		runner.submit(event("e1", "n1", "a.txt"));
+		// retries are not scheduled anymore once closing
+		assertTrue(attempted.await(10, TimeUnit.SECONDS));
+		runner.close();
+
+		assertEquals(2, attempts.get());
+		assertFalse(Files.exists(folder.resolve("dead-letter.ndjson")));
+		assertEquals(10, runner.getAvailableCapacity());
+	}
+
+	@Test
+	void eventsAreDeadLetteredOnceTheRetriesAreExhausted() throws Exception {
+		final CountDownLatch attempted = new CountDownLatch(3);
+		final ActionRunner runner = runner(event -> {
+			attempted.countDown();
+			throw new IOException("boom");
+		}, 10, 20, 2);
+		runner.submit(event("e1", "n1", "a.txt"));
+		assertTrue(attempted.await(10, TimeUnit.SECONDS));
+		// the dead letter is written by the last attempt, which closing waits for
+		runner.close();
+
+		final List<String> lines = Files.readAllLines(folder.resolve("dead-letter.ndjson"), StandardCharsets.UTF_8);
+		assertEquals(1, lines.size());
+		final JsonNode entry = OBJECT_MAPPER.readTree(lines.get(0));
+		assertEquals(3, entry.get("attempts").asInt());
+		assertEquals("boom", entry.get("error").asText());
+		assertEquals("e1", entry.get("event").get("id").asText());
+		assertEquals(10, runner.getAvailableCapacity());
+	}
+
+	@Test
+	void eventsReceivedWhileClosingAreDeadLettered() throws Exception {
+		final CountDownLatch running = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		final List<String> runs = new CopyOnWriteArrayList<>();
+		final ActionRunner runner = runner(event -> {
+			runs.add(event.getId());
+			running.countDown();
+			release.await();
+		}, 10, 20, 0);
+		runner.submit(event("e1", "n1", "a.txt"));
+		assertTrue(running.await(10, TimeUnit.SECONDS));
+		runner.submit(event("e2", "n1", "a.txt"));
+		final Thread closing = new Thread(runner::close);
+		closing.start();
+		// the run of e2 can not be scheduled once the workers are shut down
+		closing.join(200);
+		release.countDown();
+		closing.join();
+
+		assertEquals(List.of("e1"), runs);
+		final List<String> lines = Files.readAllLines(folder.resolve("dead-letter.ndjson"), StandardCharsets.UTF_8);
+		assertEquals(1, lines.size());
+		final JsonNode entry = OBJECT_MAPPER.readTree(lines.get(0));
+		assertEquals(0, entry.get("attempts").asInt());
+		assertEquals("e2", entry.get("event").get("id").asText());
+		assertEquals(10, runner.getAvailableCapacity());
+	}
+
+	static RepoEvent<DataAttributes<NodeResource>> event(String id, String nodeId, String name) {
+		final String json = "{\"specversion\":\"1.0\",\"type\":\"org.alfresco.event.node.Updated\",\"id\":\"" + id + "\","
+				+ "\"source\":\"/test\",\"time\":\"2021-01-01T00:00:00.000Z\",\"datacontenttype\":\"application/json\","
+				+ "\"data\":{\"eventGroupId\":\"g\",\"resource\":{\"@type\":\"NodeResource\",\"id\":\"" + nodeId + "\","
+				+ "\"name\":\"" + name + "\",\"nodeType\":\"cm:content\",\"primaryHierarchy\":[\"p1\",\"root\"]}}}";
+		try {
+			return OBJECT_MAPPER.readerFor(RepoEvent.class).readValue(json);
+		} catch (IOException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
+}
@@ -0,0 +1,71 @@
+package org.alfresco.cli.action;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import org.alfresco.event.sdk.model.databind.ObjectMapperFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+
+class ExecActionTests {
+
+	@Test
+	void splitOnWhitespace() {
+		assertEquals(Arrays.asList("touch", "/tmp/{id}"), ExecAction.split("  touch \t /tmp/{id} "));
+		assertTrue(ExecAction.split("   ").isEmpty());
+	}
+
+	@Test
+	void splitHonoursQuotes() {
+		assertEquals(Arrays.asList("sh", "-c", "echo {name} > '/tmp/{id}'"),
+				ExecAction.split("sh -c \"echo {name} > '/tmp/{id}'\""));
+		assertEquals(Arrays.asList("a", "", "b c", "d\"e"), ExecAction.split("a '' 'b c' 'd\"e'"));
+		assertEquals(List.of("prefix-quoted suffix"), ExecAction.split("prefix-'quoted suffix'"));
+	}
+
+	@Test
+	void splitRejectsUnterminatedQuotes() {
+		assertThrows(IllegalArgumentException.class, () -> ExecAction.split("echo 'unterminated"));
+	}
+
+	@Test
+	void emptyCommandIsRejected() {
+		assertThrows(IllegalArgumentException.class,
+				() -> new ExecAction(" ", ObjectMapperFactory.createInstance().writer(), 1));
+	}
+
+	@Test
+	void placeholdersAreReplaced() {
+		final Map<String, String> properties = ExecAction.properties(ActionRunnerTests.event("e1", "n1", "a.txt"));
+		assertEquals("n1", properties.get("id"));
+		assertEquals("a.txt", properties.get("name"));
+		assertEquals("p1", properties.get("parentId"));
+	}
+
+	@Test
+	@EnabledOnOs({OS.LINUX, OS.MAC})
+	void failingCommandThrows() {
+		final ExecAction action = new ExecAction("false", ObjectMapperFactory.createInstance().writer(), 10);
+		assertThrows(IOException.class, () -> action.run(ActionRunnerTests.event("e1", "n1", "a.txt")));
+	}
+
+	@Test
+	@EnabledOnOs({OS.LINUX, OS.MAC})
+	void timeoutAppliesToCommandsNotReadingTheEvent() {
+		final ExecAction action = new ExecAction("sleep 30", ObjectMapperFactory.createInstance().writer(), 1);
+		// larger than the buffer of the pipe
+		final String name = "x".repeat(1024 * 1024);
+		final long started = System.nanoTime();
+		final IOException ex = assertThrows(IOException.class,
+				() -> action.run(ActionRunnerTests.event("e1", "n1", name)));
+		assertTrue(ex.getMessage().startsWith("Command timed out"));
+		assertTrue(System.nanoTime() - started < 10_000_000_000L);
+	}
+
+}
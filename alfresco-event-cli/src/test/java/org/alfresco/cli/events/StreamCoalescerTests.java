@@ -0,0 +1,206 @@
+package org.alfresco.cli.events;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import org.alfresco.event.sdk.model.databind.ObjectMapperFactory;
+import org.alfresco.event.sdk.model.v1.model.DataAttributes;
+import org.alfresco.event.sdk.model.v1.model.NodeResource;
+import org.alfresco.event.sdk.model.v1.model.RepoEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class StreamCoalescerTests {
+
+	private static final long WINDOW = 60_000;
+	private static final String CREATED = "org.alfresco.event.node.Created";
+	private static final String UPDATED = "org.alfresco.event.node.Updated";
+	private static final String DELETED = "org.alfresco.event.node.Deleted";
+
+	private final List<RepoEvent<DataAttributes<NodeResource>>> handled = new ArrayList<>();
+	private final List<Runnable> tasks = new ArrayList<>();
+	private final AtomicLong time = new AtomicLong();
+	private StreamCoalescer coalescer;
+
+	@BeforeEach
+	void setUp() {
+		coalescer = coalescer(100);
+		coalescer.setWindow(WINDOW);
+	}
+
+	@AfterEach
+	void tearDown() {
+		coalescer.stop();
+	}
+
+	private StreamCoalescer coalescer(int capacity) {
+		final StreamCoalescer coalescer = new StreamCoalescer(capacity);
+		coalescer.handler = new StreamHandler();
+		coalescer.handler.setHandler(handled::add);
+		// tasks are run by the test, as the thread of the node would
+		coalescer.executor = new StripedExecutor(1, 16) {
+
+			@Override
+			public void execute(Object key, Runnable task) {
+				tasks.add(task);
+			}
+		};
+		coalescer.clock = time::get;
+		return coalescer;
+	}
+
+	private void elapse(long millis) {
+		time.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+	}
+
+	private void runTasks() {
+		tasks.forEach(Runnable::run);
+		tasks.clear();
+	}
+
+	private List<String> handledIds() {
+		return handled.stream().map(RepoEvent::getId).collect(Collectors.toList());
+	}
+
+	@Test
+	void withoutWindowEveryEventIsHandled() {
+		coalescer.setWindow(0);
+		coalescer.accept(event("e1", UPDATED, "n1", "{\"name\":\"b\"}", "{\"name\":\"a\"}"));
+		coalescer.accept(event("e1", UPDATED, "n1", "{\"name\":\"b\"}", "{\"name\":\"a\"}"));
+		assertEquals(List.of("e1", "e1"), handledIds());
+	}
+
+	@Test
+	void duplicatesAreDroppedDuringTheWindow() {
+		coalescer.accept(event("e1", CREATED, "n1", "{}", null));
+		coalescer.accept(event("e1", CREATED, "n1", "{}", null));
+		assertEquals(List.of("e1"), handledIds());
+
+		elapse(WINDOW);
+		coalescer.sweep();
+		coalescer.accept(event("e1", CREATED, "n1", "{}", null));
+		assertEquals(List.of("e1", "e1"), handledIds());
+	}
+
+	@Test
+	void updatesAreHeldForTheWindow() {
+		coalescer.accept(event("e1", UPDATED, "n1", "{\"name\":\"b\"}", "{\"name\":\"a\"}"));
+		elapse(WINDOW - 1);
+		coalescer.sweep();
+		assertTrue(tasks.isEmpty());
+
+		elapse(1);
+		coalescer.sweep();
+		assertEquals(1, tasks.size());
+		assertTrue(handled.isEmpty());
+		runTasks();
+		assertEquals(List.of("e1"), handledIds());
+		assertEquals("a", handled.get(0).getData().getResourceBefore().getName());
+	}
+
+	@Test
+	void updatesAreMergedWithTheFirstStateOfEveryField() {
+		coalescer.accept(event("e1", UPDATED, "n1",
+				"{\"name\":\"b\",\"properties\":{\"cm:title\":\"x\"}}",
+				"{\"name\":\"a\"}"));
+		coalescer.accept(event("e2", UPDATED, "n1",
+				"{\"name\":\"c\",\"properties\":{\"cm:title\":\"y\"}}",
+				"{\"name\":\"b\",\"properties\":{\"cm:title\":\"x\"}}"));
+		coalescer.accept(event("e3", UPDATED, "n1",
+				"{\"name\":\"c\",\"properties\":{\"cm:title\":\"y\",\"cm:description\":\"d\"}}",
+				"{\"properties\":{\"cm:description\":null}}"));
+		coalescer.flush();
+		runTasks();
+
+		assertEquals(List.of("e3"), handledIds());
+		final NodeResource before = handled.get(0).getData().getResourceBefore();
+		assertEquals("a", before.getName());
+		assertEquals("x", before.getProperties().get("cm:title"));
+		assertTrue(before.getProperties().containsKey("cm:description"));
+		assertEquals("c", handled.get(0).getData().getResource().getName());
+	}
+
+	@Test
+	void fieldsBackToTheirFirstStateAreNotChanged() {
+		coalescer.accept(event("e1", UPDATED, "n1", "{\"name\":\"b\"}", "{\"name\":\"a\"}"));
+		coalescer.accept(event("e2", UPDATED, "n1", "{\"name\":\"a\"}", "{\"name\":\"b\"}"));
+		coalescer.flush();
+		runTasks();
+
+		assertEquals(List.of("e2"), handledIds());
+		assertNull(handled.get(0).getData().getResourceBefore().getName());
+	}
+
+	@Test
+	void heldUpdateIsHandledBeforeTheOtherEventsOfTheNode() {
+		coalescer.accept(event("e1", UPDATED, "n1", "{\"name\":\"b\"}", "{\"name\":\"a\"}"));
+		coalescer.accept(event("e2", UPDATED, "n2", "{\"name\":\"b\"}", "{\"name\":\"a\"}"));
+		coalescer.accept(event("e3", DELETED, "n1", "{}", null));
+		assertEquals(List.of("e1", "e3"), handledIds());
+
+		elapse(WINDOW);
+		coalescer.sweep();
+		runTasks();
+		assertEquals(List.of("e1", "e3", "e2"), handledIds());
+	}
+
+	@Test
+	void updateHandedOverIsHandledOnce() {
+		coalescer.accept(event("e1", UPDATED, "n1", "{\"name\":\"b\"}", "{\"name\":\"a\"}"));
+		elapse(WINDOW);
+		coalescer.sweep();
+		coalescer.sweep();
+		assertEquals(1, tasks.size());
+
+		// handled by the event received before the thread of the node ran the task
+		coalescer.accept(event("e2", DELETED, "n1", "{}", null));
+		runTasks();
+		assertEquals(List.of("e1", "e2"), handledIds());
+	}
+
+	@Test
+	void eventsOfAssociationsAreHandledRightAway() throws IOException {
+		final String json = "{\"specversion\":\"1.0\",\"type\":\"org.alfresco.event.assoc.child.Created\",\"id\":\"e1\","
+				+ "\"source\":\"/test\",\"time\":\"2021-01-01T00:00:00.000Z\",\"data\":{\"eventGroupId\":\"g\","
+				+ "\"resource\":{\"@type\":\"ChildAssociationResource\",\"assocType\":\"cm:contains\","
+				+ "\"parent\":{\"id\":\"p1\"},\"child\":{\"id\":\"n1\"}}}}";
+		coalescer.accept(ObjectMapperFactory.createInstance().readerFor(RepoEvent.class).readValue(json));
+		assertEquals(List.of("e1"), handledIds());
+	}
+
+	@Test
+	void updatesAreHandledRightAwayWhileFull() {
+		coalescer.stop();
+		coalescer = coalescer(1);
+		coalescer.setWindow(WINDOW);
+		coalescer.accept(event("e1", UPDATED, "n1", "{\"name\":\"b\"}", "{\"name\":\"a\"}"));
+		coalescer.accept(event("e2", UPDATED, "n2", "{\"name\":\"b\"}", "{\"name\":\"a\"}"));
+		assertEquals(List.of("e2"), handledIds());
+	}
+
+	static RepoEvent<DataAttributes<NodeResource>> event(String id, String type, String nodeId, String resource,
+			String before) {
+		final String json = "{\"specversion\":\"1.0\",\"type\":\"" + type + "\",\"id\":\"" + id + "\","
+				+ "\"source\":\"/test\",\"time\":\"2021-01-01T00:00:00.000Z\",\"datacontenttype\":\"application/json\","
+				+ "\"data\":{\"eventGroupId\":\"g\","
+				+ "\"resource\":" + resource.replaceFirst("\\{", "{\"@type\":\"NodeResource\",\"id\":\"" + nodeId + "\",")
+						.replace(",}", "}")
+				+ (before != null ? ",\"resourceBefore\":" + before.replaceFirst("\\{", "{\"@type\":\"NodeResource\",")
+						.replace(",}", "}") : "")
+				+ "}}";
+		try {
+			return ObjectMapperFactory.createInstance().readerFor(RepoEvent.class).readValue(json);
+		} catch (IOException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
+}
@@ -0,0 +1,159 @@
+package org.alfresco.cli.filters;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.Map;
+import org.alfresco.event.sdk.handling.filter.EventFilter;
+import org.alfresco.event.sdk.model.databind.ObjectMapperFactory;
+import org.alfresco.event.sdk.model.v1.model.DataAttributes;
+import org.alfresco.event.sdk.model.v1.model.RepoEvent;
+import org.alfresco.event.sdk.model.v1.model.Resource;
+import org.junit.jupiter.api.Test;
+
+class FilterExpressionTests {
+
+	private static final Map<String, String> FOLDERS = Map.of("/Sites/x", "site-x", "/Sites/y", "site-y");
+
+	private static final RepoEvent<DataAttributes<Resource>> CREATED_IMAGE =
+			event("Created", "n1", "a.png", "image/png", "admin", "folder-1", "site-x");
+	private static final RepoEvent<DataAttributes<Resource>> UPDATED_TEXT =
+			event("Updated", "n2", "a.txt", "text/plain", "bob", "folder-2", "site-y");
+	private static final RepoEvent<DataAttributes<Resource>> DELETED_FOLDER =
+			event("Deleted", "n3", "O'Brien", null, "admin", "site-x");
+
+	private static boolean test(String expression, RepoEvent<DataAttributes<Resource>> event) {
+		final EventFilter filter = FilterExpression.parse(expression, folder -> FOLDERS.getOrDefault(folder, folder));
+		return filter.test(event);
+	}
+
+	private static String error(String expression) {
+		return assertThrows(IllegalArgumentException.class,
+				() -> FilterExpression.parse(expression, folder -> folder)).getMessage();
+	}
+
+	@Test
+	void equalsAndNotEquals() {
+		assertTrue(test("name = 'a.txt'", UPDATED_TEXT));
+		assertFalse(test("name = 'a.txt'", CREATED_IMAGE));
+		assertFalse(test("name != 'a.txt'", UPDATED_TEXT));
+		assertTrue(test("name != 'a.txt'", CREATED_IMAGE));
+		assertTrue(test("id = n2", UPDATED_TEXT));
+		assertTrue(test("user = \"bob\"", UPDATED_TEXT));
+		assertTrue(test("nodeType = 'cm:content'", UPDATED_TEXT));
+	}
+
+	@Test
+	void keywordsAndNamesAreCaseInsensitive() {
+		assertTrue(test("NAME = 'a.txt' AND Type In (node_updated) Or NOT mimetype = 'text/plain'", UPDATED_TEXT));
+		assertTrue(test("TYPE = Node_Created", CREATED_IMAGE));
+	}
+
+	@Test
+	void eventTypes() {
+		assertTrue(test("type in (NODE_CREATED, NODE_UPDATED)", CREATED_IMAGE));
+		assertTrue(test("type in (NODE_CREATED, NODE_UPDATED)", UPDATED_TEXT));
+		assertFalse(test("type in (NODE_CREATED, NODE_UPDATED)", DELETED_FOLDER));
+		assertTrue(test("type != NODE_CREATED", DELETED_FOLDER));
+	}
+
+	@Test
+	void inValues() {
+		assertTrue(test("name in ('a.png', 'a.txt')", CREATED_IMAGE));
+		assertFalse(test("name in ('b.png')", CREATED_IMAGE));
+		assertTrue(test("not name in ('b.png', 'b.txt')", CREATED_IMAGE));
+	}
+
+	@Test
+	void doubledQuotesAreEscaped() {
+		assertTrue(test("name = 'O''Brien'", DELETED_FOLDER));
+		assertTrue(test("name in (\"x\", 'O''Brien')", DELETED_FOLDER));
+		assertFalse(test("name = 'O'", DELETED_FOLDER));
+	}
+
+	@Test
+	void likePrefix() {
+		assertTrue(test("mimeType like 'image/%'", CREATED_IMAGE));
+		assertFalse(test("mimeType like 'image/%'", UPDATED_TEXT));
+		// literal dot, not any character
+		assertFalse(test("name like 'a.p%'", event("Created", "n4", "abpng", "image/png", "admin", "site-x")));
+		assertTrue(test("name like 'a.p%'", CREATED_IMAGE));
+	}
+
+	@Test
+	void likeWildcards() {
+		assertTrue(test("name like 'a_txt'", UPDATED_TEXT));
+		assertFalse(test("name like 'a_txt'", event("Created", "n4", "ab.txt", "text/plain", "admin", "site-x")));
+		assertTrue(test("name like '%.t%t'", UPDATED_TEXT));
+		assertTrue(test("name like '%txt'", UPDATED_TEXT));
+		assertFalse(test("name like '%txt'", CREATED_IMAGE));
+		assertTrue(test("name like '%'", CREATED_IMAGE));
+		assertTrue(test("name like '(%)'", event("Created", "n4", "(1)", "text/plain", "admin", "site-x")));
+		assertFalse(test("name like 'a.tx'", UPDATED_TEXT));
+	}
+
+	@Test
+	void missingPropertiesDoNotMatch() {
+		assertFalse(test("mimeType = 'text/plain'", DELETED_FOLDER));
+		assertFalse(test("mimeType like '%'", DELETED_FOLDER));
+		assertTrue(test("mimeType != 'text/plain'", DELETED_FOLDER));
+	}
+
+	@Test
+	void notBindsTighterThanAndThanOr() {
+		assertFalse(test("not type = NODE_CREATED and name = 'a.png'", CREATED_IMAGE));
+		assertTrue(test("not type = NODE_CREATED and name = 'a.txt'", UPDATED_TEXT));
+		assertFalse(test("name = 'x' or name = 'a.png' and type = NODE_DELETED", CREATED_IMAGE));
+		assertTrue(test("(name = 'x' or name = 'a.png') and type = NODE_CREATED", CREATED_IMAGE));
+		assertTrue(test("not not name = 'a.png'", CREATED_IMAGE));
+		assertFalse(test("not (name = 'a.png' or name = 'a.txt')", UPDATED_TEXT));
+	}
+
+	@Test
+	void under() {
+		assertTrue(test("under('/Sites/x')", CREATED_IMAGE));
+		assertFalse(test("under('/Sites/x')", UPDATED_TEXT));
+		assertTrue(test("under('/Sites/x', '/Sites/y')", UPDATED_TEXT));
+		assertTrue(test("under(folder-1) and mimeType like 'image/%'", CREATED_IMAGE));
+		assertFalse(test("under(folder-1)", DELETED_FOLDER));
+	}
+
+	@Test
+	void invalidExpressionsAreRejected() {
+		assertTrue(error("").startsWith("Expected a condition"));
+		assertTrue(error("size = 1").startsWith("Unknown property 'size'"));
+		assertTrue(error("name 'a'").startsWith("Expected '=', '!=', 'in' or 'like' after 'name'"));
+		assertTrue(error("name =").startsWith("Expected a value"));
+		assertTrue(error("name = ,").startsWith("Expected a value instead of ','"));
+		assertTrue(error("type like 'NODE_%'").startsWith("'like' can not be used with the event type"));
+		assertTrue(error("type = NODE_TOUCHED").startsWith("Unknown event type 'NODE_TOUCHED'"));
+		assertTrue(error("name = 'a").startsWith("Unterminated string"));
+		assertTrue(error("name = 'a' )").startsWith("Unexpected ')'"));
+		assertTrue(error("(name = 'a'").startsWith("Expected ')'"));
+		assertTrue(error("name in ('a', 'b'").startsWith("Expected ')'"));
+		assertTrue(error("name = 'a' & type = NODE_CREATED").startsWith("Unexpected '&'"));
+		assertTrue(error("name = 'a' and").startsWith("Expected a condition"));
+		assertEquals("Unknown property 'size' in filter: size = 1", error("size = 1"));
+	}
+
+	private static RepoEvent<DataAttributes<Resource>> event(String type, String id, String name, String mimeType,
+			String user, String... hierarchy) {
+		final String json = "{\"specversion\":\"1.0\",\"type\":\"org.alfresco.event.node." + type + "\",\"id\":\"e-" + id
+				+ "\",\"source\":\"/test\",\"time\":\"2021-01-01T00:00:00.000Z\",\"datacontenttype\":\"application/json\","
+				+ "\"data\":{\"eventGroupId\":\"g\","
+				+ "\"resource\":{\"@type\":\"NodeResource\",\"id\":\"" + id + "\",\"name\":\"" + name + "\","
+				+ "\"nodeType\":\"" + (mimeType != null ? "cm:content" : "cm:folder") + "\","
+				+ (mimeType != null ? "\"content\":{\"mimeType\":\"" + mimeType + "\",\"sizeInBytes\":1}," : "")
+				+ "\"modifiedByUser\":{\"id\":\"" + user + "\"},"
+				+ "\"primaryHierarchy\":[\"" + String.join("\",\"", hierarchy) + "\"]}}}";
+		try {
+			return ObjectMapperFactory.createInstance().readerFor(RepoEvent.class).readValue(json);
+		} catch (IOException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
+}
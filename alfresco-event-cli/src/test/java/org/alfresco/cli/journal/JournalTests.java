@@ -0,0 +1,208 @@
+package org.alfresco.cli.journal;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class JournalTests {
+
+	private static final long HOUR = 3_600_000;
+
+	@TempDir
+	Path folder;
+
+	private static byte[] event(int i) {
+		return ("{\"id\":\"e" + i + "\",\"name\":\"" + "x".repeat(i % 300) + "\"}").getBytes(StandardCharsets.UTF_8);
+	}
+
+	private List<byte[]> write(boolean compress, long segmentSize, List<byte[]> events) throws IOException {
+		try (JournalWriter writer = new JournalWriter(folder, compress, segmentSize, HOUR, 0, 16)) {
+			for (int i = 0; i < events.size(); i++) {
+				writer.append(1000L + i, events.get(i));
+			}
+		}
+		return events;
+	}
+
+	private List<byte[]> read(JournalReader reader) throws IOException {
+		final List<byte[]> events = new ArrayList<>();
+		while (reader.next()) {
+			assertEquals(1000L + events.size(), reader.timestamp());
+			try (InputStream in = reader.event()) {
+				events.add(in.readAllBytes());
+			}
+		}
+		return events;
+	}
+
+	private static List<byte[]> events(int count) {
+		final List<byte[]> events = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			events.add(event(i));
+		}
+		return events;
+	}
+
+	private void assertRoundTrip(boolean compress) throws IOException {
+		final List<byte[]> written = write(compress, 16 * 1024, events(2000));
+		assertTrue(Journal.segments(folder).size() > 1);
+
+		try (JournalReader reader = new JournalReader(folder)) {
+			final List<byte[]> read = read(reader);
+			assertEquals(written.size(), read.size());
+			for (int i = 0; i < written.size(); i++) {
+				assertArrayEquals(written.get(i), read.get(i));
+			}
+			assertEquals(0, reader.getCorrupted());
+			long size = 0;
+			for (Path segment : Journal.segments(folder)) {
+				size += Files.size(segment);
+			}
+			assertEquals(size, reader.getBytes());
+		}
+	}
+
+	@Test
+	void recordsAreReadBackAcrossRotations() throws IOException {
+		assertRoundTrip(false);
+	}
+
+	@Test
+	void compressedRecordsAreReadBackAcrossRotations() throws IOException {
+		assertRoundTrip(true);
+	}
+
+	@Test
+	void recordsLargerThanTheBufferAreWritten() throws IOException {
+		final byte[] large = new byte[3 * 1024 * 1024];
+		for (int i = 0; i < large.length; i++) {
+			large[i] = (byte) ('a' + i % 26);
+		}
+		for (boolean compress : new boolean[] {false, true}) {
+			final Path journal = folder.resolve(compress ? "compressed" : "plain");
+			try (JournalWriter writer = new JournalWriter(journal, compress, Long.MAX_VALUE, HOUR, 0, 16)) {
+				writer.append(1000, event(0));
+				writer.append(1001, large);
+			}
+			try (JournalReader reader = new JournalReader(journal)) {
+				final List<byte[]> read = read(reader);
+				assertEquals(2, read.size());
+				assertArrayEquals(event(0), read.get(0));
+				assertArrayEquals(large, read.get(1));
+			}
+		}
+	}
+
+	@Test
+	void truncatedLastRecordIsSkipped() throws IOException {
+		final List<byte[]> written = write(false, Long.MAX_VALUE, events(3));
+		final Path segment = onlySegment();
+		truncate(segment, Files.size(segment) - 5);
+
+		try (JournalReader reader = new JournalReader(folder)) {
+			final List<byte[]> read = read(reader);
+			assertEquals(2, read.size());
+			assertArrayEquals(written.get(1), read.get(1));
+			assertEquals(1, reader.getCorrupted());
+		}
+	}
+
+	@Test
+	void truncatedLastRecordHeaderIsSkipped() throws IOException {
+		final List<byte[]> written = write(true, Long.MAX_VALUE, events(3));
+		final Path segment = onlySegment();
+		final long lastRecord = Files.size(segment) - Journal.RECORD_HEADER_SIZE - lastPayloadSize(segment);
+		truncate(segment, lastRecord + Journal.RECORD_HEADER_SIZE / 2);
+
+		try (JournalReader reader = new JournalReader(folder)) {
+			final List<byte[]> read = read(reader);
+			assertEquals(2, read.size());
+			assertArrayEquals(written.get(1), read.get(1));
+			assertEquals(1, reader.getCorrupted());
+		}
+	}
+
+	@Test
+	void corruptedRecordsAreSkipped() throws IOException {
+		final List<byte[]> written = write(false, Long.MAX_VALUE, events(3));
+		final Path segment = onlySegment();
+		// last byte of the payload of the last record
+		flip(segment, Files.size(segment) - 1);
+
+		try (JournalReader reader = new JournalReader(folder)) {
+			final List<byte[]> read = read(reader);
+			assertEquals(2, read.size());
+			assertArrayEquals(written.get(1), read.get(1));
+			assertEquals(1, reader.getCorrupted());
+		}
+
+		// payload of the first record, the next ones are still read
+		flip(segment, Journal.SEGMENT_HEADER_SIZE + Journal.RECORD_HEADER_SIZE);
+		try (JournalReader reader = new JournalReader(folder)) {
+			assertTrue(reader.next());
+			assertEquals(1001, reader.timestamp());
+			assertFalse(reader.next());
+			assertEquals(2, reader.getCorrupted());
+		}
+	}
+
+	@Test
+	void filesThatAreNotJournalsAreRejected() throws IOException {
+		final Path file = Files.write(folder.resolve("events.ndjson"), "{}\n{}\n".getBytes(StandardCharsets.UTF_8));
+		try (JournalReader reader = new JournalReader(file)) {
+			assertThrows(IOException.class, reader::next);
+		}
+	}
+
+	private Path onlySegment() throws IOException {
+		final List<Path> segments = Journal.segments(folder);
+		assertEquals(1, segments.size());
+		return segments.get(0);
+	}
+
+	/**
+	 * Length of the payload of the last record, found by walking the record headers of the segment.
+	 */
+	private static long lastPayloadSize(Path segment) throws IOException {
+		final ByteBuffer content = ByteBuffer.wrap(Files.readAllBytes(segment));
+		content.position(Journal.SEGMENT_HEADER_SIZE);
+		int length = 0;
+		while (content.hasRemaining()) {
+			length = content.getInt();
+			content.position(content.position() + Journal.RECORD_HEADER_SIZE - 4 + length);
+		}
+		return length;
+	}
+
+	private static void truncate(Path file, long size) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+			channel.truncate(size);
+		}
+	}
+
+	private static void flip(Path file, long position) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			final ByteBuffer buffer = ByteBuffer.allocate(1);
+			channel.read(buffer, position);
+			buffer.put(0, (byte) (buffer.get(0) ^ 0xff));
+			buffer.rewind();
+			channel.write(buffer, position);
+		}
+	}
+
+}
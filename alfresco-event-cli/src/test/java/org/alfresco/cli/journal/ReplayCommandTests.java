@@ -0,0 +1,126 @@
+package org.alfresco.cli.journal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.alfresco.cli.events.ConsoleWriter;
+import org.alfresco.cli.events.EventPrinter;
+import org.alfresco.cli.events.StreamCoalescer;
+import org.alfresco.cli.events.StreamHandler;
+import org.alfresco.cli.events.StripedExecutor;
+import org.alfresco.cli.filters.StreamFilter;
+import org.alfresco.event.sdk.model.databind.ObjectMapperFactory;
+import org.alfresco.event.sdk.model.v1.model.DataAttributes;
+import org.alfresco.event.sdk.model.v1.model.NodeResource;
+import org.alfresco.event.sdk.model.v1.model.RepoEvent;
+import org.alfresco.event.sdk.model.v1.model.Resource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class ReplayCommandTests {
+
+	private static final String NODE_CREATED = "{\"specversion\":\"1.0\",\"type\":\"org.alfresco.event.node.Created\","
+			+ "\"id\":\"e1\",\"source\":\"/test\",\"time\":\"2021-01-01T00:00:00.000Z\",\"datacontenttype\":\"application/json\","
+			+ "\"data\":{\"eventGroupId\":\"g\",\"resource\":{\"@type\":\"NodeResource\",\"id\":\"n1\",\"name\":\"a.txt\","
+			+ "\"nodeType\":\"cm:content\",\"modifiedByUser\":{\"id\":\"admin\",\"displayName\":\"Administrator\"}}}}";
+	private static final String ASSOCIATION_CREATED = "{\"specversion\":\"1.0\",\"type\":\"org.alfresco.event.assoc.child.Created\","
+			+ "\"id\":\"e2\",\"source\":\"/test\",\"time\":\"2021-01-01T00:00:00.000Z\",\"datacontenttype\":\"application/json\","
+			+ "\"data\":{\"eventGroupId\":\"g\",\"resource\":{\"@type\":\"ChildAssociationResource\","
+			+ "\"assocType\":\"cm:contains\",\"parent\":{\"id\":\"p1\"},\"child\":{\"id\":\"n1\"}}}}";
+
+	@TempDir
+	Path folder;
+
+	private final List<String> lines = new CopyOnWriteArrayList<>();
+	private ConsoleWriter consoleWriter;
+	private ReplayCommand command;
+
+	@BeforeEach
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	void setUp() throws IOException {
+		try (JournalWriter writer = new JournalWriter(folder, false, Long.MAX_VALUE, 3_600_000, 0, 16)) {
+			writer.append(1000, NODE_CREATED.getBytes(StandardCharsets.UTF_8));
+			writer.append(1001, ASSOCIATION_CREATED.getBytes(StandardCharsets.UTF_8));
+		}
+
+		consoleWriter = mock(ConsoleWriter.class);
+		doAnswer(invocation -> lines.add(invocation.getArgument(0))).when(consoleWriter).write(any());
+		final EventPrinter eventPrinter = new EventPrinter();
+		ReflectionTestUtils.setField(eventPrinter, "objectMapper", ObjectMapperFactory.createInstance());
+		ReflectionTestUtils.setField(eventPrinter, "consoleWriter", consoleWriter);
+
+		// events flow from the channel through the filter to the handler, without threads or window
+		final StreamFilter streamFilter = new StreamFilter();
+		final StreamHandler streamHandler = new StreamHandler();
+		final StreamCoalescer coalescer = mock(StreamCoalescer.class);
+		doAnswer(invocation -> {
+			streamHandler.accept(invocation.getArgument(0));
+			return null;
+		}).when(coalescer).accept(any());
+
+		command = new ReplayCommand();
+		command.journal = folder.toFile();
+		command.eventPrinter = eventPrinter;
+		command.consoleWriter = consoleWriter;
+		command.endpoints = mock(ObjectProvider.class);
+		command.executor = mock(StripedExecutor.class);
+		command.coalescer = coalescer;
+		command.channel = (message, timeout) -> {
+			final RepoEvent<DataAttributes<Resource>> event = (RepoEvent<DataAttributes<Resource>>) message.getPayload();
+			if (streamFilter.test(event)) {
+				coalescer.accept((RepoEvent) event);
+			}
+			return true;
+		};
+		ReflectionTestUtils.setField(command, "streamFilter", streamFilter);
+		ReflectionTestUtils.setField(command, "streamHandler", streamHandler);
+		ReflectionTestUtils.setField(command, "streamCoalescer", coalescer);
+	}
+
+	@Test
+	void tableSkipsTheEventsOfAssociations() throws Exception {
+		assertEquals(0, command.call());
+
+		// header and the node
+		assertEquals(4, lines.size());
+		assertTrue(lines.get(3).startsWith("NODE_CREATED"));
+		assertTrue(lines.get(3).contains("n1"));
+	}
+
+	@Test
+	void ndjsonHasEveryEvent() throws Exception {
+		command.format = EventPrinter.NDJSON;
+		assertEquals(0, command.call());
+
+		assertEquals(2, lines.size());
+		final RepoEvent<DataAttributes<NodeResource>> node = ObjectMapperFactory.createInstance()
+				.readerFor(RepoEvent.class).readValue(lines.get(0));
+		assertEquals("e1", node.getId());
+		assertTrue(lines.get(1).contains("\"id\":\"e2\""));
+	}
+
+	@Test
+	void linesAreNeverDropped() throws Exception {
+		command.call();
+
+		final ArgumentCaptor<Boolean> dropping = ArgumentCaptor.forClass(Boolean.class);
+		verify(consoleWriter, atLeastOnce()).setDropping(dropping.capture());
+		assertFalse(dropping.getValue());
+	}
+
+}
@@ -0,0 +1,87 @@
+package org.alfresco.cli.stats;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class InterArrivalHistogramTests {
+
+	@Test
+	void smallValuesHaveTheirOwnBucket() {
+		for (int value = 0; value < 4; value++) {
+			assertEquals(value, InterArrivalHistogram.index(value));
+			assertEquals(value, InterArrivalHistogram.lowerBound(value));
+		}
+	}
+
+	@Test
+	void powersOfTwoAreSplitInFour() {
+		assertEquals(4, InterArrivalHistogram.index(4));
+		assertEquals(7, InterArrivalHistogram.index(7));
+		assertEquals(8, InterArrivalHistogram.index(8));
+		assertEquals(8, InterArrivalHistogram.index(9));
+		assertEquals(9, InterArrivalHistogram.index(10));
+		assertEquals(4, InterArrivalHistogram.lowerBound(4));
+		assertEquals(7, InterArrivalHistogram.lowerBound(7));
+		assertEquals(8, InterArrivalHistogram.lowerBound(8));
+		assertEquals(10, InterArrivalHistogram.lowerBound(9));
+
+		assertEquals(184, InterArrivalHistogram.index(1L << 47));
+		assertEquals(183, InterArrivalHistogram.index((1L << 47) - 1));
+		assertEquals(1L << 47, InterArrivalHistogram.lowerBound(184));
+	}
+
+	@Test
+	void everyValueIsWithinItsBucket() {
+		for (long value = 0; value < 100_000; value++) {
+			final int index = InterArrivalHistogram.index(value);
+			assertTrue(InterArrivalHistogram.lowerBound(index) <= value);
+			assertTrue(value < InterArrivalHistogram.lowerBound(index + 1));
+		}
+	}
+
+	@Test
+	void percentilesOfAnEmptyHistogram() {
+		assertEquals(-1, InterArrivalHistogram.percentile(List.of(new InterArrivalHistogram()), 0.5));
+	}
+
+	@Test
+	void percentileRanks() {
+		final InterArrivalHistogram histogram = new InterArrivalHistogram();
+		for (long value = 0; value < 4; value++) {
+			histogram.record(value);
+		}
+		assertEquals(0, InterArrivalHistogram.percentile(List.of(histogram), 0.25));
+		assertEquals(1, InterArrivalHistogram.percentile(List.of(histogram), 0.5));
+		assertEquals(2, InterArrivalHistogram.percentile(List.of(histogram), 0.75));
+		assertEquals(3, InterArrivalHistogram.percentile(List.of(histogram), 1));
+	}
+
+	@Test
+	void percentilesOfSeveralHistogramsAreTheMiddleOfTheirBucket() {
+		final InterArrivalHistogram fast = new InterArrivalHistogram();
+		final InterArrivalHistogram slow = new InterArrivalHistogram();
+		for (int i = 0; i < 100; i++) {
+			fast.record(8);
+			slow.record(1000);
+		}
+		// [8, 10) and [896, 1024)
+		assertEquals(9, InterArrivalHistogram.percentile(List.of(fast, slow), 0.5));
+		assertEquals(960, InterArrivalHistogram.percentile(List.of(fast, slow), 0.75));
+	}
+
+	@Test
+	void valuesOutOfRangeAreClamped() {
+		final InterArrivalHistogram histogram = new InterArrivalHistogram();
+		histogram.record(-5);
+		assertEquals(0, InterArrivalHistogram.percentile(List.of(histogram), 1));
+
+		histogram.record(Long.MAX_VALUE);
+		histogram.record(1L << 48);
+		// last bucket [7 * 2^45, 2^48)
+		assertEquals(15L << 44, InterArrivalHistogram.percentile(List.of(histogram), 1));
+	}
+
+}
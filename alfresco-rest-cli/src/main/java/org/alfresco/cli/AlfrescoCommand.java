@@ -10,6 +10,8 @@ import org.alfresco.cli.acs.AcsCommand;
 import org.alfresco.cli.ags.AgsCommand;
 import org.alfresco.cli.apa.ApaCommand;
 import org.alfresco.cli.config.ConfigCommand;
+import org.alfresco.cli.daemon.DaemonCommand;
+import org.alfresco.cli.exec.ExecCommand;
 import org.springframework.stereotype.Component;
 import picocli.CommandLine.Command;
 import picocli.CommandLine.ScopeType;
@@ -17,7 +19,8 @@ import picocli.CommandLine.ScopeType;
 @Component
 @Command(name = "alfresco", scope = ScopeType.INHERIT, mixinStandardHelpOptions = true,
         exitCodeOnExecutionException = 1, showDefaultValues = true, usageHelpAutoWidth = true,
-        version = "1.0", subcommands = {AcsCommand.class, AgsCommand.class, ApaCommand.class, ConfigCommand.class},
+        version = "1.0", subcommands = {AcsCommand.class, AgsCommand.class, ApaCommand.class, ConfigCommand.class,
+                DaemonCommand.class, ExecCommand.class},
         synopsisHeading = "    _   _  __                         _ _ \n"
                 + "   /_\\ | |/ _|_ _ ___ _____ ___    __| (_)\n"
                 + "  / _ \\| |  _| '_/ -_(_-/ _/ _ \\  / _| | |\n"
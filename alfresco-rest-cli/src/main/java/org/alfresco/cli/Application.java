@@ -6,6 +6,8 @@
  */
 package org.alfresco.cli;
 
+import java.util.OptionalInt;
+import org.alfresco.cli.daemon.DaemonClient;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.ExitCodeGenerator;
 import org.springframework.boot.SpringApplication;
@@ -45,6 +47,11 @@ public class Application implements CommandLineRunner, ExitCodeGenerator {
     }
 
     public static void main(String[] args) {
+        // a running daemon saves starting the Spring context for every command
+        OptionalInt forwarded = DaemonClient.forward(args);
+        if (forwarded.isPresent()) {
+            System.exit(forwarded.getAsInt());
+        }
         // let Spring instantiate and inject dependencies
         System.exit(SpringApplication.exit(SpringApplication.run(Application.class, args)));
     }
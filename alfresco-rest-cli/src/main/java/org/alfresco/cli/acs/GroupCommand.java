@@ -8,6 +8,7 @@ package org.alfresco.cli.acs;
 
 import org.alfresco.cli.format.FormatProvider;
 import org.alfresco.cli.format.FormatProviderRegistry;
+import org.alfresco.cli.format.IdsFormatProvider;
 import org.alfresco.core.handler.GroupsApi;
 import org.alfresco.core.model.*;
 import org.alfresco.core.model.GroupMembershipBodyCreate.MemberTypeEnum;
@@ -21,6 +22,7 @@ import picocli.CommandLine.Parameters;
 
 import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.stream.Stream;
 
 @Component
 @Command(name = "group", description = "Group commands", subcommands = {
@@ -258,16 +260,14 @@ public class GroupCommand {
     }
 
     @Component
-    static class GroupPagingListIdsProvider implements FormatProvider {
+    static class GroupPagingListIdsProvider extends IdsFormatProvider {
 
         @Override
-        public void print(Object item) {
+        protected Stream<String> ids(Object item) {
             final GroupPagingList groupList = (GroupPagingList) item;
             List<GroupEntry> entries = groupList.getEntries();
-            entries.stream()
-                    .map(entry -> entry.getEntry().getId())
-                    .reduce((e1, e2) -> e1 + ", " + e2)
-                    .ifPresent(System.out::printf);
+            return entries.stream()
+                    .map(entry -> entry.getEntry().getId());
         }
 
         @Override
@@ -337,16 +337,14 @@ public class GroupCommand {
     }
 
     @Component
-    static class GroupMemberPagingListIdProvider implements FormatProvider {
+    static class GroupMemberPagingListIdProvider extends IdsFormatProvider {
 
         @Override
-        public void print(Object item) {
+        protected Stream<String> ids(Object item) {
             final GroupMemberPagingList groupMemberList = (GroupMemberPagingList) item;
             List<GroupMemberEntry> entries = groupMemberList.getEntries();
-            entries.stream()
-                    .map(entry -> entry.getEntry().getId())
-                    .reduce((e1, e2) -> e1 + ", " + e2)
-                    .ifPresent(System.out::printf);
+            return entries.stream()
+                    .map(entry -> entry.getEntry().getId());
         }
 
         @Override
@@ -0,0 +1,287 @@
+/*
+ * Copyright 2005-2020 Alfresco Software, Ltd. All rights reserved.
+ * License rights for this program may be obtained from Alfresco Software, Ltd.
+ * pursuant to a written agreement and any use of this program without such an
+ * agreement is prohibited.
+ */
+package org.alfresco.cli.acs;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import javax.annotation.PreDestroy;
+import org.alfresco.core.handler.NodesApi;
+import org.alfresco.core.model.Node;
+import org.alfresco.core.model.PathElement;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Resolves paths relative to the repository root into node ids, caching the id of every resolved
+ * path and of its ancestors so related paths are resolved with fewer or no requests.
+ *
+ * Entries expire after a TTL and the least recently used ones are evicted once the cache is full.
+ * The cache can optionally be persisted under '~/.alfresco' so it survives between invocations.
+ */
+@Component
+public class NodePathResolver {
+
+    static final File CACHE_FILE = Paths.get(System.getProperty("user.home"), ".alfresco", "node-paths.properties")
+            .toFile();
+
+    private static final String ROOT_PATH = "/";
+    private static final String ROOT_ID = "-root-";
+    // the cache file only belongs to the server it was written for, paths always start with '/'
+    private static final String URL_KEY = "url";
+    private static final List<String> FIELDS = Arrays.asList("id", "path");
+
+    @Autowired
+    NodesApi nodesApi;
+
+    private final String url;
+    private final long ttl;
+    private final int maxSize;
+    private final boolean persist;
+    private final Map<String, CachedId> cache;
+    private boolean loaded;
+    private boolean modified;
+
+    NodePathResolver(@Value("${content.service.url}") String url,
+            @Value("${node.path.cache.ttl:300}") long ttlSeconds,
+            @Value("${node.path.cache.size:1000}") int maxSize,
+            @Value("${node.path.cache.persist:false}") boolean persist) {
+        this.url = url;
+        this.ttl = ttlSeconds * 1000;
+        this.maxSize = maxSize;
+        this.persist = persist;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedId> eldest) {
+                return size() > NodePathResolver.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * Id of the node with the given path, or the given value itself when it is not a path.
+     */
+    public String getNodeId(String path) {
+        if (!path.startsWith(ROOT_PATH)) {
+            return path;
+        }
+        final List<String> segments = segments(path);
+        final String key = key(segments, segments.size());
+        if (ttl <= 0 || maxSize <= 0) {
+            return resolve(ROOT_ID, segments, 0).getId();
+        }
+
+        // start from the deepest cached ancestor, so only the remaining segments are resolved
+        int depth = segments.size();
+        String baseId = null;
+        synchronized (this) {
+            load();
+            for (; depth >= 0 && baseId == null; depth--) {
+                baseId = get(key(segments, depth));
+            }
+        }
+        depth++;
+        if (depth == segments.size() && baseId != null) {
+            return baseId;
+        }
+
+        final Node node = resolve(baseId != null ? baseId : ROOT_ID, segments, depth);
+        synchronized (this) {
+            put(key, node.getId());
+            // the ancestors of the node are returned with it, unless the path does not follow the
+            // primary parents
+            if (node.getPath() != null && node.getPath().getElements() != null) {
+                final List<PathElement> elements = node.getPath().getElements();
+                if (elements.size() == segments.size() && matches(elements, segments)) {
+                    for (int i = 0; i < elements.size(); i++) {
+                        put(key(segments, i), elements.get(i).getId());
+                    }
+                }
+            }
+        }
+        return node.getId();
+    }
+
+    /**
+     * Forget the given path and every path below it.
+     */
+    public synchronized void invalidate(String path) {
+        load();
+        final List<String> segments = segments(path);
+        final String key = key(segments, segments.size());
+        final String prefix = key.equals(ROOT_PATH) ? ROOT_PATH : key + ROOT_PATH;
+        final Iterator<String> keys = cache.keySet().iterator();
+        while (keys.hasNext()) {
+            final String cached = keys.next();
+            if (cached.equals(key) || cached.startsWith(prefix)) {
+                keys.remove();
+                modified = true;
+            }
+        }
+    }
+
+    /**
+     * Forget every path pointing to the given node id, and the paths below them.
+     */
+    public synchronized void invalidateId(String nodeId) {
+        load();
+        final List<String> paths = new ArrayList<>();
+        cache.forEach((path, cached) -> {
+            if (cached.id.equals(nodeId)) {
+                paths.add(path);
+            }
+        });
+        paths.forEach(this::invalidate);
+    }
+
+    public synchronized void clear() {
+        load();
+        cache.clear();
+        modified = true;
+    }
+
+    private Node resolve(String baseId, List<String> segments, int depth) {
+        final String relativePath = ROOT_PATH + String.join(ROOT_PATH, segments.subList(depth, segments.size()));
+        return nodesApi.getNode(baseId, Collections.singletonList("path"), relativePath, FIELDS).getBody()
+                .getEntry();
+    }
+
+    private static boolean matches(List<PathElement> elements, List<String> segments) {
+        // the first element is the root folder, the following ones the segments of the parent path
+        for (int i = 1; i < elements.size(); i++) {
+            if (!segments.get(i - 1).equals(elements.get(i).getName())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String get(String key) {
+        final CachedId cached = cache.get(key);
+        if (cached == null) {
+            return null;
+        }
+        if (cached.expires < System.currentTimeMillis()) {
+            cache.remove(key);
+            modified = true;
+            return null;
+        }
+        return cached.id;
+    }
+
+    private void put(String key, String id) {
+        cache.put(key, new CachedId(id, System.currentTimeMillis() + ttl));
+        modified = true;
+    }
+
+    private static List<String> segments(String path) {
+        final List<String> segments = new ArrayList<>();
+        for (String segment : path.split(ROOT_PATH)) {
+            if (!segment.isEmpty()) {
+                segments.add(segment);
+            }
+        }
+        return segments;
+    }
+
+    private static String key(List<String> segments, int depth) {
+        return ROOT_PATH + String.join(ROOT_PATH, segments.subList(0, depth));
+    }
+
+    private void load() {
+        if (loaded || !persist) {
+            return;
+        }
+        loaded = true;
+        if (!CACHE_FILE.exists()) {
+            return;
+        }
+        final Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(CACHE_FILE.toPath())) {
+            properties.load(in);
+        } catch (IOException | IllegalArgumentException ex) {
+            // an unreadable cache is just a cold cache
+            return;
+        }
+        if (!url.equals(properties.getProperty(URL_KEY))) {
+            return;
+        }
+        final long now = System.currentTimeMillis();
+        for (String path : properties.stringPropertyNames()) {
+            final String[] value = properties.getProperty(path).split(",", 2);
+            if (path.startsWith(ROOT_PATH) && value.length == 2) {
+                try {
+                    final long expires = Long.parseLong(value[1]);
+                    if (expires >= now) {
+                        cache.put(path, new CachedId(value[0], expires));
+                    }
+                } catch (NumberFormatException ex) {
+                    // ignore the entry
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    synchronized void save() throws IOException {
+        if (!persist || !modified) {
+            return;
+        }
+        final Properties properties = new Properties();
+        properties.setProperty(URL_KEY, url);
+        final long now = System.currentTimeMillis();
+        cache.forEach((path, cached) -> {
+            if (cached.expires >= now) {
+                properties.setProperty(path, cached.id + "," + cached.expires);
+            }
+        });
+        Files.createDirectories(CACHE_FILE.getParentFile().toPath());
+        // written aside and moved, so concurrent invocations never read a partial file
+        final Path temp = Files.createTempFile(CACHE_FILE.getParentFile().toPath(), "node-paths", ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                properties.store(out, "Alfresco CLI node path cache");
+            }
+            try {
+                Files.move(temp, CACHE_FILE.toPath(), StandardCopyOption.ATOMIC_MOVE,
+                        StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException ex) {
+                Files.move(temp, CACHE_FILE.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        modified = false;
+    }
+
+    private static class CachedId {
+
+        private final String id;
+        private final long expires;
+
+        CachedId(String id, long expires) {
+            this.id = id;
+            this.expires = expires;
+        }
+    }
+}
@@ -8,24 +8,51 @@ package org.alfresco.cli.acs;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Optional;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import org.alfresco.cli.content.ContentClient;
+import org.alfresco.cli.content.TransferProgress;
+import org.alfresco.cli.format.FormatOptions;
 import org.alfresco.cli.format.FormatProvider;
 import org.alfresco.cli.format.FormatProviderRegistry;
+import org.alfresco.cli.format.IdsFormatProvider;
 import org.alfresco.core.handler.NodesApi;
 import org.alfresco.core.model.Node;
 import org.alfresco.core.model.NodeBodyCreate;
 import org.alfresco.core.model.NodeBodyUpdate;
+import org.alfresco.core.model.NodeChildAssociation;
 import org.alfresco.core.model.NodeChildAssociationEntry;
 import org.alfresco.core.model.NodeChildAssociationPaging;
 import org.alfresco.core.model.NodeChildAssociationPagingList;
 import org.alfresco.core.model.NodeEntry;
-import org.apache.commons.io.FileUtils;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.Resource;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 import picocli.CommandLine.Command;
@@ -37,12 +64,12 @@ import picocli.CommandLine.Mixin;
 @Command(name = "node", description = "Node commands",
         subcommands = {NodesCommand.ListNodeCommand.class, NodesCommand.UpdateNodeCommand.class,
                 NodesCommand.CreateNodeCommand.class, NodesCommand.GetNodeCommand.class,
-                NodesCommand.GetContentNodeCommand.class, NodesCommand.DeleteNodeCommand.class})
+                NodesCommand.GetContentNodeCommand.class, NodesCommand.DeleteNodeCommand.class,
+                NodesCommand.TreeNodeCommand.class, NodesCommand.UploadDirNodeCommand.class,
+                NodesCommand.ClearCacheNodeCommand.class})
 public class NodesCommand {
 
-    private static final String ROOT_PATH = "/";
     private static final String MY_ID = "-my-";
-    private static final String ROOT_ID = "-root-";
 
     @Component
     @Command(name = "delete", mixinStandardHelpOptions = true, exitCodeOnExecutionException = 44)
@@ -59,11 +86,32 @@ public class NodesCommand {
         public Integer call() {
             final String nodeId = getNodeId(node);
             nodesApi.deleteNode(nodeId, permanent);
+            nodePathResolver.invalidateId(nodeId);
             formatProvider.print(nodeId);
             return 0;
         }
     }
 
+    @Component
+    @Command(name = "clear-cache", mixinStandardHelpOptions = true, exitCodeOnExecutionException = 44,
+            description = "Forget the node ids cached for paths")
+    static class ClearCacheNodeCommand extends AbstractNodesCommand {
+
+        @Parameters(index = "0", arity = "0..1",
+                description = "Path to be forgotten together with the paths below it. Every path is forgotten by default")
+        private String path;
+
+        @Override
+        public Integer call() {
+            if (path != null) {
+                nodePathResolver.invalidate(path);
+            } else {
+                nodePathResolver.clear();
+            }
+            return 0;
+        }
+    }
+
     @Component
     @Command(name = "get", mixinStandardHelpOptions = true, exitCodeOnExecutionException = 44)
     static class GetNodeCommand extends AbstractNodesCommand {
@@ -95,14 +143,44 @@ public class NodesCommand {
                 description = "Download folder absolute path")
         String downloadFolder = null;
 
+        @Option(names = {"-pr", "--progress"}, description = "Print download progress and throughput to the error output")
+        boolean progress = false;
+
+        @Option(names = {"-r", "--resume"},
+                description = "Resume an interrupted download from the partial file left in the download folder")
+        boolean resume = false;
+
+        @Option(names = {"-rg", "--ranges"}, defaultValue = "1",
+                description = "Number of byte ranges of the content downloaded concurrently")
+        int ranges;
+
+        @Autowired
+        ContentClient contentClient;
+
         @Override
-        public Integer call() throws IOException {
+        public Integer call() throws IOException, InterruptedException {
             final String nodeId = getNodeId(node);
-            final Resource resource =
-                    nodesApi.getNodeContent(nodeId, true, null, null).getBody();
-            File file = new File((downloadFolder != null ? downloadFolder + File.separator : "") + resource.getFilename());
-            FileUtils.copyInputStreamToFile(resource.getInputStream(), file);
-            formatProvider.print(file.getPath());
+            if (downloadFolder != null) {
+                Files.createDirectories(Paths.get(downloadFolder));
+            }
+            final String prefix = downloadFolder != null ? downloadFolder + File.separator : "";
+            final TransferProgress transferProgress = new TransferProgress(nodeId, -1, progress);
+            final Path file;
+            if (resume || ranges > 1) {
+                // the file name and size are needed before the content is requested
+                final Node node = nodesApi.getNode(nodeId, null, null, null).getBody().getEntry();
+                final Path target = Paths.get(prefix + node.getName());
+                file = ranges > 1 && node.getContent() != null
+                        ? contentClient.downloadContent(nodeId, target,
+                                node.getContent().getSizeInBytes().longValue(), ranges, transferProgress)
+                        : contentClient.resumeContent(nodeId, target, transferProgress);
+            } else {
+                // streamed to disk instead of buffering the whole content returned by nodesApi.getNodeContent
+                file = contentClient.downloadContent(nodeId, fileName -> Paths.get(
+                        prefix + (fileName != null ? fileName : nodeId)), transferProgress);
+            }
+            transferProgress.done();
+            formatProvider.print(file.toString());
             return 0;
         }
     }
@@ -127,15 +205,206 @@ public class NodesCommand {
                 description = "A string to control the order of the entities returned in a list. You can use the **order-by** parameter to sort the list by one or more fields.  Each field has a default sort order, which is normally ascending order. To sort the entities in a specific order, you can use the **ASC** and **DESC** keywords for any field.")
         List<String> orderBy = null;
 
+        @Option(names = {"--all"},
+                description = "List every child by following the pagination. Pages are printed as they are received, using --max-items as page size.")
+        boolean all = false;
+
+        @Option(names = {"--prefetch"},
+                description = "Request the next page while the current one is printed. Only used with --all.")
+        boolean prefetch = false;
+
         @Override
-        public Integer call() {
+        public Integer call() throws Exception {
             final String parentNodeId = getNodeId(parent);
+            if (all) {
+                listAll(parentNodeId);
+            } else {
+                formatProvider.print(listChildren(parentNodeId, skipCount));
+            }
+            return 0;
+        }
+
+        private void listAll(String parentNodeId) {
+            // only the page being printed and the prefetched one are kept in memory
+            final ExecutorService executor = prefetch ? Executors.newSingleThreadExecutor() : null;
+            try {
+                formatProvider.printAll(() -> new PageIterator(parentNodeId, executor));
+            } finally {
+                if (executor != null) {
+                    executor.shutdownNow();
+                }
+            }
+        }
+
+        /**
+         * Pages of children requested as they are iterated, the next one in the background when an
+         * executor is given.
+         */
+        private class PageIterator implements Iterator<NodeChildAssociationPagingList> {
+
+            private final String parentNodeId;
+            private final ExecutorService executor;
+            private int skip = skipCount == null ? 0 : skipCount;
+            private NodeChildAssociationPagingList page;
+            private Future<NodeChildAssociationPagingList> nextPage;
+            private boolean last;
+
+            PageIterator(String parentNodeId, ExecutorService executor) {
+                this.parentNodeId = parentNodeId;
+                this.executor = executor;
+            }
+
+            @Override
+            public boolean hasNext() {
+                if (page == null && !last) {
+                    page = nextPage != null ? getPage(nextPage) : listChildren(parentNodeId, skip);
+                    nextPage = null;
+                    last = !Boolean.TRUE.equals(page.getPagination().isHasMoreItems()) || page.getEntries().isEmpty();
+                    skip += page.getEntries().size();
+                    if (!last && executor != null) {
+                        final int nextSkip = skip;
+                        nextPage = executor.submit(() -> listChildren(parentNodeId, nextSkip));
+                    }
+                }
+                return page != null;
+            }
+
+            @Override
+            public NodeChildAssociationPagingList next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                final NodeChildAssociationPagingList current = page;
+                page = null;
+                return current;
+            }
+
+            private NodeChildAssociationPagingList getPage(Future<NodeChildAssociationPagingList> page) {
+                try {
+                    return page.get();
+                } catch (ExecutionException ex) {
+                    throw ex.getCause() instanceof RuntimeException ? (RuntimeException) ex.getCause()
+                            : new IllegalStateException(ex.getCause());
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException(ex);
+                }
+            }
+        }
+
+        private NodeChildAssociationPagingList listChildren(String parentNodeId, Integer skip) {
             final ResponseEntity<NodeChildAssociationPaging> responseEntity =
-                    nodesApi.listNodeChildren(parentNodeId, skipCount, maxItems, orderBy, where,
+                    nodesApi.listNodeChildren(parentNodeId, skip, maxItems, orderBy, where,
                             null, null, null, null);
-            final NodeChildAssociationPagingList list = responseEntity.getBody().getList();
-            formatProvider.print(list);
-            return 0;
+            return responseEntity.getBody().getList();
+        }
+    }
+
+    @Component
+    @Command(name = "tree", aliases = "find", mixinStandardHelpOptions = true, exitCodeOnExecutionException = 44,
+            description = "Walk the subtree of the parent folder, listing the children of every folder concurrently")
+    static class TreeNodeCommand extends AbstractNodesCommand {
+
+        private static final String FOLDERS = "(isFolder=true)";
+
+        @Option(names = {"-w", "--where"},
+                description = "Optionally filter the children listed in every folder, e.g. -w \"(isFile=true)\". Subfolders are walked regardless of the filter.")
+        String where = null;
+
+        @Option(names = {"-dp", "--depth"},
+                description = "Maximum depth of the walk, 1 lists only the children of the parent folder. Unlimited by default.")
+        Integer depth = null;
+
+        @Option(names = {"-max", "--max-items"},
+                description = "Page size used to list the children of every folder. (Default value is 100)")
+        Integer maxItems = null;
+
+        @Option(names = {"-P", "--parallel"}, description = "Number of folders listed concurrently. (Default value is 4)")
+        int parallel = 4;
+
+        private final AtomicInteger failed = new AtomicInteger();
+
+        @Override
+        public Integer call() {
+            failed.set(0);
+            final String parentNodeId = getNodeId(parent);
+            final ForkJoinPool pool = new ForkJoinPool(Math.max(1, parallel));
+            try {
+                pool.invoke(new FolderTask(parentNodeId, 1));
+            } finally {
+                pool.shutdownNow();
+            }
+            if (failed.get() > 0) {
+                System.err.printf("Failed to list %d folders%n", failed.get());
+            }
+            return failed.get() == 0 ? 0 : 1;
+        }
+
+        private void print(NodeChildAssociationPagingList page) {
+            // pages of different folders are printed as a whole
+            synchronized (formatProvider) {
+                formatProvider.print(page);
+            }
+        }
+
+        /**
+         * Lists the children of a folder page by page and forks a task for every subfolder.
+         */
+        private class FolderTask extends RecursiveAction {
+
+            private final String folderId;
+            private final int level;
+
+            FolderTask(String folderId, int level) {
+                this.folderId = folderId;
+                this.level = level;
+            }
+
+            @Override
+            protected void compute() {
+                final boolean descend = depth == null || level < depth;
+                final List<FolderTask> subfolders = new ArrayList<>();
+                try {
+                    if (where == null) {
+                        forEachPage(null, page -> {
+                            print(page);
+                            if (descend) {
+                                collectFolders(page, subfolders);
+                            }
+                        });
+                    } else {
+                        forEachPage(where, page -> print(page));
+                        if (descend) {
+                            forEachPage(FOLDERS, page -> collectFolders(page, subfolders));
+                        }
+                    }
+                } catch (RuntimeException ex) {
+                    // a folder that can not be listed (e.g. forbidden or deleted meanwhile) does not stop the
+                    // walk, the subfolders found before the failure are still walked
+                    failed.incrementAndGet();
+                    System.err.printf("Failed to list folder %s: %s%n", folderId, ex.getMessage());
+                }
+                invokeAll(subfolders);
+            }
+
+            private void collectFolders(NodeChildAssociationPagingList page, List<FolderTask> subfolders) {
+                page.getEntries().stream().map(NodeChildAssociationEntry::getEntry)
+                        .filter(node -> Boolean.TRUE.equals(node.isIsFolder()))
+                        .forEach(node -> subfolders.add(new FolderTask(node.getId(), level + 1)));
+            }
+
+            private void forEachPage(String filter, Consumer<NodeChildAssociationPagingList> consumer) {
+                int skip = 0;
+                boolean hasMoreItems = true;
+                while (hasMoreItems) {
+                    final NodeChildAssociationPagingList page = nodesApi.listNodeChildren(folderId, skip,
+                            maxItems, null, filter, null, null, null, null).getBody().getList();
+                    consumer.accept(page);
+                    hasMoreItems = Boolean.TRUE.equals(page.getPagination().isHasMoreItems())
+                            && !page.getEntries().isEmpty();
+                    skip += page.getEntries().size();
+                }
+            }
         }
     }
 
@@ -165,6 +434,184 @@ public class NodesCommand {
         }
     }
 
+    @Component
+    @Command(name = "upload-dir", mixinStandardHelpOptions = true, exitCodeOnExecutionException = 44,
+            description = "Mirror a local directory tree into the parent folder, uploading files concurrently")
+    static class UploadDirNodeCommand extends AbstractNodesCommand {
+
+        private static final int PAGE_SIZE = 1000;
+        private static final int BUFFER_SIZE = 64 * 1024;
+        private static final double MEGABYTE = 1024 * 1024;
+
+        @Parameters(index = "0", description = "Local directory to be uploaded")
+        File directory;
+
+        @Option(names = {"-P", "--parallel"}, description = "Number of files uploaded concurrently. (Default value is 4)")
+        int parallel = 4;
+
+        @Option(names = {"-cs", "--checksum"},
+                description = "Skip files already uploaded with the same size and SHA-256 checksum. By default files with the same size are skipped unless they have been modified after the upload.")
+        boolean checksum = false;
+
+        @Option(names = {"-pr", "--progress"}, description = "Print upload progress and throughput to the error output")
+        boolean progress = false;
+
+        @Autowired
+        ContentClient contentClient;
+
+        private final AtomicInteger uploaded = new AtomicInteger();
+        private final AtomicInteger skipped = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+
+        @Override
+        public Integer call() throws Exception {
+            if (!directory.isDirectory()) {
+                throw new IllegalArgumentException(directory + " is not a directory");
+            }
+            uploaded.set(0);
+            skipped.set(0);
+            failed.set(0);
+            final String folderId = getNodeId(parent);
+            final int workers = Math.max(1, parallel);
+            final TransferProgress transferProgress = new TransferProgress(directory.getName(), -1, progress);
+            final long started = System.nanoTime();
+
+            final ExecutorService executor = Executors.newFixedThreadPool(workers);
+            // folders are created by this thread while workers upload the files found so far
+            final Semaphore pending = new Semaphore(workers * 4);
+            try {
+                uploadDirectory(directory.toPath(), folderId, executor, pending, transferProgress);
+            } finally {
+                executor.shutdown();
+                executor.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+            }
+            transferProgress.done();
+
+            final double seconds = Math.max(System.nanoTime() - started, 1) / 1e9;
+            System.err.printf("Uploaded %d files (%.1f MB) in %.1f s: %.1f files/s, %.1f MB/s. Skipped %d, failed %d.%n",
+                    uploaded.get(), transferProgress.getBytes() / MEGABYTE, seconds, uploaded.get() / seconds,
+                    transferProgress.getBytes() / MEGABYTE / seconds, skipped.get(), failed.get());
+            return failed.get() == 0 ? 0 : 1;
+        }
+
+        private void uploadDirectory(Path localDirectory, String folderId, ExecutorService executor,
+                Semaphore pending, TransferProgress transferProgress) throws IOException, InterruptedException {
+            final Map<String, NodeChildAssociation> existing = listChildren(folderId);
+            final Map<Path, String> subdirectories = new LinkedHashMap<>();
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(localDirectory)) {
+                for (Path entry : entries) {
+                    final String name = entry.getFileName().toString();
+                    final NodeChildAssociation remote = existing.get(name);
+                    // links to directories are not followed, they may point to an ancestor
+                    if (Files.isDirectory(entry, LinkOption.NOFOLLOW_LINKS)) {
+                        if (remote != null && !Boolean.TRUE.equals(remote.getIsFolder())) {
+                            failed.incrementAndGet();
+                            System.err.printf("Failed to upload %s: %s is not a folder%n", entry, remote.getId());
+                            continue;
+                        }
+                        try {
+                            subdirectories.put(entry, remote != null ? remote.getId() : createNode(folderId, name,
+                                    ContentModel.CM_FOLDER));
+                        } catch (RuntimeException ex) {
+                            failed.incrementAndGet();
+                            System.err.printf("Failed to create folder %s: %s%n", entry, ex.getMessage());
+                        }
+                    } else if (Files.isDirectory(entry)) {
+                        skipped.incrementAndGet();
+                        System.err.printf("Skipped link to a directory %s%n", entry);
+                    } else if (Files.isRegularFile(entry)) {
+                        pending.acquire();
+                        executor.execute(() -> {
+                            try {
+                                uploadFile(entry, folderId, remote, transferProgress);
+                            } finally {
+                                pending.release();
+                            }
+                        });
+                    }
+                }
+            }
+            for (Map.Entry<Path, String> subdirectory : subdirectories.entrySet()) {
+                uploadDirectory(subdirectory.getKey(), subdirectory.getValue(), executor, pending, transferProgress);
+            }
+        }
+
+        private void uploadFile(Path file, String folderId, NodeChildAssociation remote,
+                TransferProgress transferProgress) {
+            try {
+                if (remote != null && Boolean.TRUE.equals(remote.getIsFolder())) {
+                    throw new IllegalStateException(remote.getId() + " is a folder");
+                }
+                if (remote != null && isUpToDate(file, remote)) {
+                    skipped.incrementAndGet();
+                    return;
+                }
+                final String nodeId = remote != null ? remote.getId()
+                        : createNode(folderId, file.getFileName().toString(), ContentModel.CM_CONTENT);
+                final Node node = contentClient.uploadContent(nodeId, file.toFile(), null, null, transferProgress);
+                uploaded.incrementAndGet();
+                synchronized (formatProvider) {
+                    formatProvider.print(node);
+                }
+            } catch (Exception ex) {
+                failed.incrementAndGet();
+                System.err.printf("Failed to upload %s: %s%n", file, ex.getMessage());
+            }
+        }
+
+        private boolean isUpToDate(Path file, NodeChildAssociation remote) throws IOException {
+            if (remote.getContent() == null || remote.getContent().getSizeInBytes() == null
+                    || remote.getContent().getSizeInBytes().longValue() != Files.size(file)) {
+                return false;
+            }
+            if (checksum) {
+                // the REST API does not expose content hashes, so the remote one is computed while streaming it
+                final byte[] localChecksum;
+                try (InputStream in = Files.newInputStream(file)) {
+                    localChecksum = sha256(in);
+                }
+                final byte[] remoteChecksum = contentClient.getContent(remote.getId(), response -> sha256(response.getBody()));
+                return MessageDigest.isEqual(localChecksum, remoteChecksum);
+            }
+            return !remote.getModifiedAt().toInstant().isBefore(Files.getLastModifiedTime(file).toInstant());
+        }
+
+        private Map<String, NodeChildAssociation> listChildren(String folderId) {
+            final Map<String, NodeChildAssociation> children = new HashMap<>();
+            int skip = 0;
+            boolean hasMoreItems = true;
+            while (hasMoreItems) {
+                final NodeChildAssociationPagingList page = nodesApi.listNodeChildren(folderId, skip, PAGE_SIZE,
+                        null, null, null, null, null, null).getBody().getList();
+                page.getEntries().forEach(entry -> children.put(entry.getEntry().getName(), entry.getEntry()));
+                hasMoreItems = Boolean.TRUE.equals(page.getPagination().isHasMoreItems())
+                        && !page.getEntries().isEmpty();
+                skip += page.getEntries().size();
+            }
+            return children;
+        }
+
+        private String createNode(String folderId, String name, String nodeType) {
+            final NodeBodyCreate nodeBodyCreate = new NodeBodyCreate().nodeType(nodeType).name(name);
+            return nodesApi.createNode(folderId, nodeBodyCreate, null, null, null, null, null)
+                    .getBody().getEntry().getId();
+        }
+
+        private static byte[] sha256(InputStream in) throws IOException {
+            try {
+                final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+                final byte[] buffer = new byte[BUFFER_SIZE];
+                int read;
+                while ((read = in.read(buffer)) >= 0) {
+                    digest.update(buffer, 0, read);
+                }
+                return digest.digest();
+            } catch (NoSuchAlgorithmException ex) {
+                throw new IllegalStateException(ex);
+            }
+        }
+    }
+
     @Component
     @Command(name = "update", mixinStandardHelpOptions = true, exitCodeOnExecutionException = 44)
     static class UpdateNodeCommand extends UpdatableNodesCommand {
@@ -198,6 +645,10 @@ public class NodesCommand {
 
                 ResponseEntity<NodeEntry> responseEntity =
                         nodesApi.updateNode(nodeId, nodeBodyUpdate, null, null);
+                if (name != null) {
+                    // the paths of the node and its children have changed
+                    nodePathResolver.invalidateId(nodeId);
+                }
                 return Optional.of(responseEntity.getBody().getEntry());
             } else {
                 return Optional.empty();
@@ -216,14 +667,11 @@ public class NodesCommand {
         @Autowired
         NodesApi nodesApi;
 
+        @Autowired
+        NodePathResolver nodePathResolver;
+
         String getNodeId(String path) {
-            if (path.startsWith(ROOT_PATH)) {
-                ResponseEntity<NodeEntry> responseEntity =
-                        nodesApi.getNode(ROOT_ID, null, path, Collections.singletonList("id"));
-                return responseEntity.getBody().getEntry().getId();
-            } else {
-                return path;
-            }
+            return nodePathResolver.getNodeId(path);
         }
     }
 
@@ -245,13 +693,22 @@ public class NodesCommand {
                 description = "One or more metadata properties. E.g. -m cm:title=\"Proposal\"")
         Map<String, Object> metadata = Collections.emptyMap();
 
+        @Option(names = {"-pr", "--progress"}, description = "Print upload progress and throughput to the error output")
+        boolean progress = false;
+
+        @Autowired
+        ContentClient contentClient;
+
         Optional<Node> updateNodeContent(String nodeId, Boolean majorVersion, String comment)
                 throws IOException {
             if (source != null) {
-                ResponseEntity<NodeEntry> responseEntity =
-                        nodesApi.updateNodeContent(nodeId, FileUtils.readFileToByteArray(source),
-                                majorVersion, comment, null, null, null);
-                return Optional.of(responseEntity.getBody().getEntry());
+                // streamed from disk, so the size of the file does not matter
+                final TransferProgress transferProgress =
+                        new TransferProgress(source.getName(), source.length(), progress);
+                final Node node = contentClient.uploadContent(nodeId, source, majorVersion, comment,
+                        transferProgress);
+                transferProgress.done();
+                return Optional.of(node);
             } else {
                 return Optional.empty();
             }
@@ -301,23 +758,37 @@ public class NodesCommand {
     @Component
     static class NodeChildAssociationPagingListFormatProvider implements FormatProvider {
 
+        private static final String LINE =
+                "-----------------------------------------------------------------------------------------------------------------------------------------------------";
+
         @Override
         public void print(Object item) {
+            print(item, null);
+        }
+
+        /**
+         * Without options the page is printed as a closed table. Otherwise the header is printed once
+         * per execution, so the pages of a listing, or of every folder of a tree, make a single table
+         * whose rows tell their parent folder.
+         */
+        @Override
+        public void print(Object item, FormatOptions options) {
             final NodeChildAssociationPagingList ncaList = (NodeChildAssociationPagingList) item;
             List<NodeChildAssociationEntry> entries = ncaList.getEntries();
-            System.out.println(
-                    "----------------------------------------------------------------------------------------------------------------------");
-            System.out.printf("%-40s %-30s %-25s %-10s", "ID", "NAME", "MODIFIED AT", "USER");
-            System.out.println();
-            System.out.println(
-                    "----------------------------------------------------------------------------------------------------------------------");
+            if (options == null || options.needsHeader(NodeChildAssociationPagingList.class)) {
+                System.out.println(LINE);
+                System.out.printf("%-40s %-30s %-25s %-10s %-40s", "ID", "NAME", "MODIFIED AT", "USER", "PARENT");
+                System.out.println();
+                System.out.println(LINE);
+            }
             entries.stream().map(entry -> entry.getEntry()).forEach(entry -> {
-                System.out.printf("%-40s %-30s %-25s %-10s", entry.getId(), entry.getName(),
-                        entry.getModifiedAt(), entry.getModifiedByUser().getDisplayName());
+                System.out.printf("%-40s %-30s %-25s %-10s %-40s", entry.getId(), entry.getName(),
+                        entry.getModifiedAt(), entry.getModifiedByUser().getDisplayName(), entry.getParentId());
                 System.out.println();
             });
-            System.out.println(
-                    "----------------------------------------------------------------------------------------------------------------------");
+            if (options == null) {
+                System.out.println(LINE);
+            }
         }
 
         @Override
@@ -327,16 +798,14 @@ public class NodesCommand {
     }
 
     @Component
-    static class NodeChildAssociationPagingListIdsFormatProvider implements FormatProvider {
+    static class NodeChildAssociationPagingListIdsFormatProvider extends IdsFormatProvider {
 
         @Override
-        public void print(Object item) {
+        protected Stream<String> ids(Object item) {
             final NodeChildAssociationPagingList ncaList = (NodeChildAssociationPagingList) item;
             List<NodeChildAssociationEntry> entries = ncaList.getEntries();
-            entries.stream()
-                    .map(entry -> entry.getEntry().getId())
-                    .reduce((e1, e2) -> e1 + ", " + e2)
-                    .ifPresent(System.out::printf);
+            return entries.stream()
+                    .map(entry -> entry.getEntry().getId());
         }
 
         @Override
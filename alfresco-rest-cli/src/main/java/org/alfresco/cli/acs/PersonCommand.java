@@ -8,6 +8,7 @@ package org.alfresco.cli.acs;
 
 import org.alfresco.cli.format.FormatProvider;
 import org.alfresco.cli.format.FormatProviderRegistry;
+import org.alfresco.cli.format.IdsFormatProvider;
 import org.alfresco.core.handler.GroupsApi;
 import org.alfresco.core.handler.PeopleApi;
 import org.alfresco.core.handler.SitesApi;
@@ -21,6 +22,7 @@ import picocli.CommandLine.Parameters;
 
 import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.stream.Stream;
 
 @Component
 @Command(name = "person", description = "Person commands", subcommands = {
@@ -295,16 +297,14 @@ public class PersonCommand {
     }
 
     @Component
-    static class PersonPagingListIdsFormatProvider implements FormatProvider {
+    static class PersonPagingListIdsFormatProvider extends IdsFormatProvider {
 
         @Override
-        public void print(Object item) {
+        protected Stream<String> ids(Object item) {
             final PersonPagingList personList = (PersonPagingList) item;
             List<PersonEntry> entries = personList.getEntries();
-            entries.stream()
-                    .map(entry -> entry.getEntry().getId())
-                    .reduce((e1, e2) -> e1 + ", " + e2)
-                    .ifPresent(System.out::printf);
+            return entries.stream()
+                    .map(entry -> entry.getEntry().getId());
         }
 
         @Override
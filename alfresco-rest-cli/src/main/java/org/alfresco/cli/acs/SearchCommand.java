@@ -1,7 +1,10 @@
 package org.alfresco.cli.acs;
 
+import org.alfresco.cli.content.ContentClient;
+import org.alfresco.cli.content.TransferProgress;
 import org.alfresco.cli.format.FormatProvider;
 import org.alfresco.cli.format.FormatProviderRegistry;
+import org.alfresco.cli.format.IdsFormatProvider;
 import org.alfresco.search.handler.SearchApi;
 import org.alfresco.search.model.*;
 import org.alfresco.search.sql.handler.SqlApi;
@@ -15,8 +18,24 @@ import picocli.CommandLine.Mixin;
 import picocli.CommandLine.Option;
 import picocli.CommandLine.Parameters;
 
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
 @Component
 @Command(name = "search", description = "Search commands",
@@ -26,12 +45,19 @@ import java.util.concurrent.Callable;
                 SearchCommand.SQLCommand.class})
 public class SearchCommand {
 
+    private static final double MEGABYTE = 1024 * 1024;
+    // node id and file name of every completed download of a folder, one per line
+    private static final String DOWNLOADS = ".alfresco-downloads";
+
     @Autowired
     SearchApi searchApi;
 
     @Autowired
     SqlApi sqlApi;
 
+    @Autowired
+    ContentClient contentClient;
+
     @Component
     @Command(name = "cmis", description = "Execute cmis query.", mixinStandardHelpOptions = true)
     class CmisCommand implements Callable<Integer> {
@@ -44,20 +70,151 @@ public class SearchCommand {
         Integer pagingMaxItems;
         @Option(names = {"-psc", "--paging-skip-count"}, defaultValue = "0", description = "Skip Count initial results")
         Integer pagingSkipCount;
+        @Option(names = {"-dt", "--download-to"}, description = "Folder to download the content of every result to, following the pagination")
+        File downloadTo;
+        @Option(names = {"-P", "--parallel"}, defaultValue = "4", description = "Number of concurrent downloads when using --download-to")
+        Integer parallel;
+
+        private final AtomicInteger downloaded = new AtomicInteger();
+        private final AtomicInteger skipped = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        // file names taken by the nodes of previous and current downloads, by name
+        private final Map<String, String> claimed = new ConcurrentHashMap<>();
+        private Map<String, String> completed;
+        private BufferedWriter downloads;
 
         @Override
-        public Integer call() {
-            ResultSetPagingList result =
-                    searchApi.search(new SearchRequest()
-                            .query(new RequestQuery()
-                                    .language(RequestQuery.LanguageEnum.CMIS)
-                                    .query(query))
-                            .paging(new RequestPagination()
-                                    .maxItems(pagingMaxItems)
-                                    .skipCount(pagingSkipCount))).getBody().getList();
+        public Integer call() throws Exception {
+            if (downloadTo != null) {
+                return downloadAll();
+            }
+            ResultSetPagingList result = search(pagingSkipCount);
             formatProvider.print(result);
             return 0;
         }
+
+        private ResultSetPagingList search(Integer skipCount) {
+            return searchApi.search(new SearchRequest()
+                    .query(new RequestQuery()
+                            .language(RequestQuery.LanguageEnum.CMIS)
+                            .query(query))
+                    .paging(new RequestPagination()
+                            .maxItems(pagingMaxItems)
+                            .skipCount(skipCount))).getBody().getList();
+        }
+
+        private Integer downloadAll() throws Exception {
+            Files.createDirectories(downloadTo.toPath());
+            downloaded.set(0);
+            skipped.set(0);
+            failed.set(0);
+            claimed.clear();
+            completed = readDownloads();
+            claimed.putAll(completed);
+            // files not downloaded by this command are never overwritten
+            try (Stream<Path> files = Files.list(downloadTo.toPath())) {
+                files.forEach(file -> claimed.putIfAbsent(file.getFileName().toString(), ""));
+            }
+            downloads = Files.newBufferedWriter(downloadTo.toPath().resolve(DOWNLOADS), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            final int workers = Math.max(1, parallel);
+            final TransferProgress transferProgress = new TransferProgress(query, -1, false);
+            final long started = System.nanoTime();
+
+            final ExecutorService executor = Executors.newFixedThreadPool(workers);
+            // the next page is requested while the downloads of the current one are running
+            final Semaphore pending = new Semaphore(workers * 4);
+            try {
+                int skipCount = pagingSkipCount;
+                boolean hasMoreItems = true;
+                while (hasMoreItems) {
+                    ResultSetPagingList page = search(skipCount);
+                    for (ResultSetRowEntry entry : page.getEntries()) {
+                        final ResultNode node = entry.getEntry();
+                        // folders have no content
+                        if (node.getContent() != null) {
+                            pending.acquire();
+                            executor.execute(() -> {
+                                try {
+                                    download(node, transferProgress);
+                                } finally {
+                                    pending.release();
+                                }
+                            });
+                        }
+                    }
+                    hasMoreItems = Boolean.TRUE.equals(page.getPagination().isHasMoreItems())
+                            && !page.getEntries().isEmpty();
+                    skipCount += page.getEntries().size();
+                }
+            } finally {
+                executor.shutdown();
+                executor.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+                downloads.close();
+            }
+
+            final double seconds = Math.max(System.nanoTime() - started, 1) / 1e9;
+            System.err.printf("Downloaded %d files (%.1f MB) in %.1f s: %.1f files/s, %.1f MB/s. Skipped %d, failed %d.%n",
+                    downloaded.get(), transferProgress.getBytes() / MEGABYTE, seconds, downloaded.get() / seconds,
+                    transferProgress.getBytes() / MEGABYTE / seconds, skipped.get(), failed.get());
+            return failed.get() == 0 ? 0 : 1;
+        }
+
+        private void download(ResultNode node, TransferProgress transferProgress) {
+            final File file = new File(downloadTo, claim(node));
+            try {
+                final Number size = node.getContent().getSizeInBytes();
+                if (node.getId().equals(completed.get(file.getName())) && file.isFile() && size != null
+                        && file.length() == size.longValue()) {
+                    skipped.incrementAndGet();
+                    return;
+                }
+                contentClient.downloadContent(node.getId(), file.toPath(), transferProgress);
+                downloaded.incrementAndGet();
+                synchronized (formatProvider) {
+                    downloads.write(node.getId() + "\t" + file.getName());
+                    downloads.newLine();
+                    downloads.flush();
+                    formatProvider.print(file.getPath());
+                }
+            } catch (Exception ex) {
+                failed.incrementAndGet();
+                System.err.printf("Failed to download %s: %s%n", node.getId(), ex.getMessage());
+            }
+        }
+
+        /**
+         * File name of the node in the download folder: its own name, unless it is taken by another
+         * node, then the name with the node id before the extension. E.g.: index-{id}.html
+         */
+        private String claim(ResultNode node) {
+            final String name = node.getName();
+            final String owner = claimed.putIfAbsent(name, node.getId());
+            if (owner == null || owner.equals(node.getId())) {
+                return name;
+            }
+            final int extension = name.lastIndexOf('.');
+            final String unique = extension > 0
+                    ? name.substring(0, extension) + "-" + node.getId() + name.substring(extension)
+                    : name + "-" + node.getId();
+            // node ids are unique, it belongs to this node whoever claimed it
+            claimed.putIfAbsent(unique, node.getId());
+            return unique;
+        }
+
+        private Map<String, String> readDownloads() throws IOException {
+            final Map<String, String> owners = new HashMap<>();
+            final Path file = downloadTo.toPath().resolve(DOWNLOADS);
+            if (Files.isRegularFile(file)) {
+                for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                    final int separator = line.indexOf('\t');
+                    if (separator > 0) {
+                        owners.put(line.substring(separator + 1), line.substring(0, separator));
+                    }
+                }
+            }
+            return owners;
+        }
     }
 
     @Component
@@ -130,16 +287,14 @@ public class SearchCommand {
     }
 
     @Component
-    static class ResultSetPagingListIdsProvider implements FormatProvider {
+    static class ResultSetPagingListIdsProvider extends IdsFormatProvider {
 
         @Override
-        public void print(Object item) {
+        protected Stream<String> ids(Object item) {
             final ResultSetPagingList resultSetList = (ResultSetPagingList) item;
             List<ResultSetRowEntry> entries = resultSetList.getEntries();
-            entries.stream()
-                    .map(entry -> entry.getEntry().getId())
-                    .reduce((e1, e2) -> e1 + ", " + e2)
-                    .ifPresent(System.out::printf);
+            return entries.stream()
+                    .map(entry -> entry.getEntry().getId());
         }
 
         @Override
@@ -2,6 +2,7 @@ package org.alfresco.cli.acs;
 
 import org.alfresco.cli.format.FormatProvider;
 import org.alfresco.cli.format.FormatProviderRegistry;
+import org.alfresco.cli.format.IdsFormatProvider;
 import org.alfresco.core.handler.SitesApi;
 import org.alfresco.core.model.*;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,6 +14,7 @@ import picocli.CommandLine.Parameters;
 
 import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.stream.Stream;
 
 @Component
 @Command(name = "site", subcommands = {
@@ -425,16 +427,14 @@ public class SiteCommand {
 
 
     @Component
-    static class SitePagingListIdsProvider implements FormatProvider {
+    static class SitePagingListIdsProvider extends IdsFormatProvider {
 
         @Override
-        public void print(Object item) {
+        protected Stream<String> ids(Object item) {
             final SitePagingList siteList = (SitePagingList) item;
             List<SiteEntry> entries = siteList.getEntries();
-            entries.stream()
-                    .map(entry -> entry.getEntry().getId())
-                    .reduce((e1, e2) -> e1 + ", " + e2)
-                    .ifPresent(System.out::printf);
+            return entries.stream()
+                    .map(entry -> entry.getEntry().getId());
         }
 
         @Override
@@ -504,16 +504,14 @@ public class SiteCommand {
     }
 
     @Component
-    static class SiteContainerPagingListIdsProvider implements FormatProvider {
+    static class SiteContainerPagingListIdsProvider extends IdsFormatProvider {
 
         @Override
-        public void print(Object item) {
+        protected Stream<String> ids(Object item) {
             final SiteContainerPagingList siteContainerList = (SiteContainerPagingList) item;
             List<SiteContainerEntry> entries = siteContainerList.getEntries();
-            entries.stream()
-                    .map(entry -> entry.getEntry().getId())
-                    .reduce((e1, e2) -> e1 + ", " + e2)
-                    .ifPresent(System.out::printf);
+            return entries.stream()
+                    .map(entry -> entry.getEntry().getId());
         }
 
         @Override
@@ -583,16 +581,14 @@ public class SiteCommand {
     }
 
     @Component
-    static class SiteRolePagingListIdsProvider implements FormatProvider {
+    static class SiteRolePagingListIdsProvider extends IdsFormatProvider {
 
         @Override
-        public void print(Object item) {
+        protected Stream<String> ids(Object item) {
             final SiteRolePagingList siteRoleList = (SiteRolePagingList) item;
             List<SiteRoleEntry> entries = siteRoleList.getEntries();
-            entries.stream()
-                    .map(entry -> entry.getEntry().getId())
-                    .reduce((e1, e2) -> e1 + ", " + e2)
-                    .ifPresent(System.out::printf);
+            return entries.stream()
+                    .map(entry -> entry.getEntry().getId());
         }
 
         @Override
@@ -662,16 +658,14 @@ public class SiteCommand {
     }
 
     @Component
-    static class SiteGroupPagingListIdsProvider implements FormatProvider {
+    static class SiteGroupPagingListIdsProvider extends IdsFormatProvider {
 
         @Override
-        public void print(Object item) {
+        protected Stream<String> ids(Object item) {
             final SiteGroupPagingList siteGroupList = (SiteGroupPagingList) item;
             List<SiteGroupEntry> entries = siteGroupList.getEntries();
-            entries.stream()
-                    .map(entry -> entry.getEntry().getId())
-                    .reduce((e1, e2) -> e1 + ", " + e2)
-                    .ifPresent(System.out::printf);
+            return entries.stream()
+                    .map(entry -> entry.getEntry().getId());
         }
 
         @Override
@@ -741,16 +735,14 @@ public class SiteCommand {
     }
 
     @Component
-    static class SiteMemberPagingListIdsProvider implements FormatProvider {
+    static class SiteMemberPagingListIdsProvider extends IdsFormatProvider {
 
         @Override
-        public void print(Object item) {
+        protected Stream<String> ids(Object item) {
             final SiteMemberPagingList siteMemberList = (SiteMemberPagingList) item;
             List<SiteMemberEntry> entries = siteMemberList.getEntries();
-            entries.stream()
-                    .map(entry -> entry.getEntry().getId())
-                    .reduce((e1, e2) -> e1 + ", " + e2)
-                    .ifPresent(System.out::printf);
+            return entries.stream()
+                    .map(entry -> entry.getEntry().getId());
         }
 
         @Override
@@ -9,6 +9,7 @@ import java.util.Properties;
 import org.apache.commons.io.FileUtils;
 import org.springframework.stereotype.Component;
 import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
 import picocli.CommandLine.Parameters;
 
 @Component
@@ -39,6 +40,30 @@ public class ConfigCommand {
         return 0;
     }
 
+    @Command(description = "Set configuration for the HTTP connection pool.")
+    public Integer http(@Option(names = {"-mc", "--max-connections"}, description = "Maximum number of connections") Integer maxConnections,
+                        @Option(names = {"-mr", "--max-per-route"}, description = "Maximum number of connections to the same server") Integer maxPerRoute,
+                        @Option(names = {"-it", "--idle-timeout"}, description = "Seconds an idle connection is kept open") Long idleTimeout,
+                        @Option(names = {"-ct", "--connect-timeout"}, description = "Connect timeout in milliseconds") Integer connectTimeout,
+                        @Option(names = {"-rt", "--read-timeout"}, description = "Read timeout in milliseconds") Integer readTimeout)
+            throws IOException {
+        Properties appProps = getAppProps();
+        setIfPresent(appProps, "feign.httpclient.max-connections", maxConnections);
+        setIfPresent(appProps, "feign.httpclient.max-connections-per-route", maxPerRoute);
+        setIfPresent(appProps, "http.client.idle-timeout", idleTimeout);
+        setIfPresent(appProps, "feign.httpclient.connection-timeout", connectTimeout);
+        setIfPresent(appProps, "feign.client.config.default.connectTimeout", connectTimeout);
+        setIfPresent(appProps, "feign.client.config.default.readTimeout", readTimeout);
+        appProps.store(new FileWriter(USER_CONFIGURATION_FILE), "Alfresco CLI Local Configuration");
+        return 0;
+    }
+
+    private void setIfPresent(Properties appProps, String key, Object value) {
+        if (value != null) {
+            appProps.setProperty(key, value.toString());
+        }
+    }
+
     private Properties getAppProps() throws IOException {
         Properties appProps = new Properties();
         if (USER_CONFIGURATION_FILE.exists()) {
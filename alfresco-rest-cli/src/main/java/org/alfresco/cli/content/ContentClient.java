@@ -0,0 +1,460 @@
+/*
+ * Copyright 2005-2020 Alfresco Software, Ltd. All rights reserved.
+ * License rights for this program may be obtained from Alfresco Software, Ltd.
+ * pursuant to a written agreement and any use of this program without such an
+ * agreement is prohibited.
+ */
+package org.alfresco.cli.content;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import org.alfresco.core.model.Node;
+import org.alfresco.core.model.NodeEntry;
+import org.apache.http.conn.ConnectionReleaseTrigger;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.ResponseExtractor;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * Transfers node content without holding it in memory.
+ *
+ * The generated Feign clients only accept and return content as byte arrays, so content is sent
+ * through a {@link RestTemplate} that streams the request body instead.
+ */
+@Component
+public class ContentClient {
+
+    static final String PART_SUFFIX = ".part";
+    static final String META_SUFFIX = ".meta";
+
+    private static final int BUFFER_SIZE = 1024 * 1024;
+    private static final long MIN_RANGE_SIZE = 8 * 1024 * 1024;
+
+    private final RestTemplate restTemplate;
+    private final String baseUrl;
+
+    ContentClient(RestTemplateBuilder restTemplateBuilder, CloseableHttpClient httpClient,
+            @Value("${content.service.url}") String url,
+            @Value("${content.service.path}") String path,
+            @Value("${content.service.security.basicAuth.username}") String username,
+            @Value("${content.service.security.basicAuth.password}") String password) {
+        // same connection pool as the Feign clients
+        HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory(httpClient);
+        requestFactory.setBufferRequestBody(false);
+        this.restTemplate = restTemplateBuilder.basicAuthentication(username, password)
+                .requestFactory(() -> requestFactory).build();
+        this.baseUrl = url + path;
+    }
+
+    /**
+     * Replace the content of a node with the content of a local file, streaming it from disk. The
+     * transferred bytes are added to the given progress, which may be shared by several uploads.
+     */
+    public Node uploadContent(String nodeId, File source, Boolean majorVersion, String comment,
+            TransferProgress progress) {
+        UriComponentsBuilder uri = UriComponentsBuilder.fromHttpUrl(baseUrl).path("/nodes/{nodeId}/content");
+        if (majorVersion != null) {
+            uri.queryParam("majorVersion", majorVersion);
+        }
+        if (comment != null) {
+            uri.queryParam("comment", comment);
+        }
+        URI target = uri.buildAndExpand(nodeId).encode().toUri();
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
+        Resource body = new FileSystemResource(source) {
+
+            @Override
+            public InputStream getInputStream() throws IOException {
+                return progress.wrap(super.getInputStream());
+            }
+        };
+
+        NodeEntry nodeEntry = restTemplate
+                .exchange(target, HttpMethod.PUT, new HttpEntity<>(body, headers), NodeEntry.class).getBody();
+        return nodeEntry.getEntry();
+    }
+
+    /**
+     * Read the content of a node as a stream, without buffering it in memory.
+     */
+    public <T> T getContent(String nodeId, ResponseExtractor<T> extractor) {
+        return getContent(nodeId, null, extractor);
+    }
+
+    private <T> T getContent(String nodeId, HttpRange range, ResponseExtractor<T> extractor) {
+        return getContent(nodeId, range, null, extractor);
+    }
+
+    /**
+     * @param ifRange the range is only sent back while the content matches this ETag or date,
+     *                otherwise the whole content is
+     */
+    private <T> T getContent(String nodeId, HttpRange range, String ifRange, ResponseExtractor<T> extractor) {
+        URI target = UriComponentsBuilder.fromHttpUrl(baseUrl).path("/nodes/{nodeId}/content")
+                .queryParam("attachment", true).buildAndExpand(nodeId).encode().toUri();
+        RequestCallback requestCallback = range == null ? null : request -> {
+            request.getHeaders().setRange(Collections.singletonList(range));
+            if (ifRange != null) {
+                request.getHeaders().set(HttpHeaders.IF_RANGE, ifRange);
+            }
+        };
+        return restTemplate.execute(target, HttpMethod.GET, requestCallback, extractor);
+    }
+
+    /**
+     * Download the content of a node into a local file, streaming it straight to disk.
+     *
+     * @return the downloaded file
+     */
+    public Path downloadContent(String nodeId, Path target, TransferProgress progress) {
+        return downloadContent(nodeId, fileName -> target, progress);
+    }
+
+    /**
+     * Download the content of a node into a local file, streaming it straight to disk. The content is
+     * written to a temporary '.part' file that is renamed once the download is complete, so the
+     * target never holds partial content.
+     *
+     * @param targetResolver resolves the target file from the file name sent by the server, which may
+     *                       be null
+     * @return the downloaded file
+     */
+    public Path downloadContent(String nodeId, Function<String, Path> targetResolver, TransferProgress progress) {
+        return getContent(nodeId, response -> {
+            final Path target = targetResolver.apply(response.getHeaders().getContentDisposition().getFilename());
+            progress.setTotalBytes(response.getHeaders().getContentLength());
+            final Path part = partOf(target);
+            writeValidator(part, response);
+            receive(response, part, 0, progress);
+            move(part, target);
+            Files.deleteIfExists(metaOf(part));
+            return target;
+        });
+    }
+
+    /**
+     * Download the content of a node, resuming from the '.part' file left by an interrupted download
+     * of the same target when there is one. The ETag or the modification date of the content is kept
+     * in a '.part.meta' file next to it: the download starts again from the beginning when the
+     * content changed since, or when it is unknown.
+     *
+     * @return the downloaded file
+     */
+    public Path resumeContent(String nodeId, Path target, TransferProgress progress) throws IOException {
+        final Path part = partOf(target);
+        final Path meta = metaOf(part);
+        final String validator = Files.exists(part) && Files.exists(meta) ? Files.readString(meta).trim() : "";
+        final long offset = validator.isEmpty() ? 0 : Files.size(part);
+        try {
+            return getContent(nodeId, offset > 0 ? HttpRange.createByteRange(offset) : null, validator, response -> {
+                final boolean partial = response.getStatusCode() == HttpStatus.PARTIAL_CONTENT;
+                // servers ignoring If-Range send the range of the new content
+                if (partial && !validator.equals(validatorOf(response))) {
+                    abort(response.getBody());
+                    throw new ContentChangedException();
+                }
+                // servers ignoring the range, or the content changed, send the whole content again
+                final long position = partial ? offset : 0;
+                if (!partial) {
+                    writeValidator(part, response);
+                }
+                final long length = response.getHeaders().getContentLength();
+                progress.setTotalBytes(length >= 0 ? position + length : -1);
+                receive(response, part, position, progress);
+                move(part, target);
+                Files.deleteIfExists(meta);
+                return target;
+            });
+        } catch (HttpClientErrorException ex) {
+            if (ex.getStatusCode() != HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE) {
+                throw ex;
+            }
+        } catch (ResourceAccessException ex) {
+            if (!(ex.getCause() instanceof ContentChangedException)) {
+                throw ex;
+            }
+        }
+        // the partial file does not belong to the current content
+        Files.deleteIfExists(part);
+        Files.deleteIfExists(meta);
+        return downloadContent(nodeId, target, progress);
+    }
+
+    /**
+     * Download the content of a node splitting it in byte ranges that are requested concurrently and
+     * written in place into the '.part' file.
+     *
+     * A single byte is requested first, to check that the server supports ranges: when it does not,
+     * the whole content it sends instead is kept. Otherwise every range is requested with the ETag or
+     * modification date of that first response as If-Range, so all of them belong to the same version
+     * of the content. When the content changes during the download, the ranges still being received
+     * are aborted and the whole content is downloaded again.
+     *
+     * @param size   size of the content
+     * @param ranges number of ranges to download concurrently
+     * @return the downloaded file
+     */
+    public Path downloadContent(String nodeId, Path target, long size, int ranges, TransferProgress progress)
+            throws IOException, InterruptedException {
+        if (ranges <= 1 || size < MIN_RANGE_SIZE * 2) {
+            return downloadContent(nodeId, target, progress);
+        }
+        progress.setTotalBytes(size);
+        final Path part = partOf(target);
+        final String validator = getContent(nodeId, HttpRange.createByteRange(0, 0), response -> {
+            if (response.getStatusCode() == HttpStatus.PARTIAL_CONTENT) {
+                return validatorOf(response);
+            }
+            // the whole content, which can be resumed
+            writeValidator(part, response);
+            receive(response, part, 0, progress);
+            return null;
+        });
+        if (validator == null) {
+            move(part, target);
+            Files.deleteIfExists(metaOf(part));
+            return target;
+        }
+        if (validator.isEmpty()) {
+            // ranges can not be tied to one version of the content
+            return downloadContent(nodeId, target, progress);
+        }
+
+        final long rangeSize = Math.max(MIN_RANGE_SIZE, (size + ranges - 1) / ranges);
+        final RangeBodies bodies = new RangeBodies();
+        final ExecutorService executor = Executors.newFixedThreadPool(ranges);
+        final CompletionService<Long> completion = new ExecutorCompletionService<>(executor);
+        // written with holes, it can not be resumed
+        Files.deleteIfExists(metaOf(part));
+        try (FileChannel channel = FileChannel.open(part, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            int submitted = 0;
+            try {
+                for (long start = 0; start < size; start += rangeSize) {
+                    final HttpRange range = HttpRange.createByteRange(start, Math.min(size, start + rangeSize) - 1);
+                    final long position = start;
+                    completion.submit(() -> getContent(nodeId, range, validator,
+                            response -> receiveRange(response, validator, bodies, channel, position, progress)));
+                    submitted++;
+                }
+                // in completion order, so a failed range stops the others at once
+                for (int i = 0; i < submitted && bodies.getFailure() == null; i++) {
+                    completion.take().get();
+                }
+            } catch (ExecutionException ex) {
+                bodies.abort(ex.getCause() instanceof Exception ? (Exception) ex.getCause() : ex);
+            } finally {
+                bodies.abort(null);
+                executor.shutdownNow();
+                // aborted ranges fail at once, none of them writes to the channel once it is closed
+                executor.awaitTermination(30, TimeUnit.SECONDS);
+            }
+        }
+        final Exception failure = bodies.getFailure();
+        if (failure instanceof ContentChangedException) {
+            Files.deleteIfExists(part);
+            return downloadContent(nodeId, target, progress);
+        }
+        if (failure instanceof IOException) {
+            throw (IOException) failure;
+        }
+        if (failure != null) {
+            throw failure instanceof RuntimeException ? (RuntimeException) failure : new IllegalStateException(failure);
+        }
+        move(part, target);
+        return target;
+    }
+
+    /**
+     * Write a range into the '.part' file, if it belongs to the same content as the other ranges.
+     */
+    private static long receiveRange(ClientHttpResponse response, String validator, RangeBodies bodies,
+            FileChannel channel, long position, TransferProgress progress) throws IOException {
+        final InputStream body = response.getBody();
+        bodies.add(body);
+        try {
+            if (response.getStatusCode() != HttpStatus.PARTIAL_CONTENT || !validator.equals(validatorOf(response))) {
+                // If-Range did not match, or was ignored
+                throw new ContentChangedException();
+            }
+            return receive(body, channel, position, progress);
+        } catch (IOException ex) {
+            // before the response is closed, which would read the rest of every body
+            bodies.abort(ex);
+            throw ex;
+        } finally {
+            bodies.remove(body);
+        }
+    }
+
+    private static Path partOf(Path target) {
+        return target.resolveSibling(target.getFileName() + PART_SUFFIX);
+    }
+
+    private static Path metaOf(Path part) {
+        return part.resolveSibling(part.getFileName() + META_SUFFIX);
+    }
+
+    /**
+     * The strong ETag of the content, or its modification date, as accepted by If-Range.
+     */
+    private static String validatorOf(ClientHttpResponse response) {
+        final String etag = response.getHeaders().getETag();
+        if (etag != null && !etag.startsWith("W/")) {
+            return etag;
+        }
+        final String lastModified = response.getHeaders().getFirst(HttpHeaders.LAST_MODIFIED);
+        return lastModified != null ? lastModified : "";
+    }
+
+    private static void writeValidator(Path part, ClientHttpResponse response) throws IOException {
+        final String validator = validatorOf(response);
+        if (validator.isEmpty()) {
+            Files.deleteIfExists(metaOf(part));
+        } else {
+            Files.writeString(metaOf(part), validator);
+        }
+    }
+
+    private static long receive(ClientHttpResponse response, Path part, long position, TransferProgress progress)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(part, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            channel.truncate(position);
+            return receive(response.getBody(), channel, position, progress);
+        }
+    }
+
+    private static long receive(InputStream body, FileChannel target, long position, TransferProgress progress)
+            throws IOException {
+        // a single heap array per download, filled straight from the body and written in large
+        // blocks: the file channel copies it once into its own direct buffer
+        final byte[] block = new byte[BUFFER_SIZE];
+        final ByteBuffer buffer = ByteBuffer.wrap(block);
+        long written = 0;
+        try (InputStream source = progress.wrap(body)) {
+            boolean endOfStream = false;
+            while (!endOfStream) {
+                int filled = 0;
+                while (filled < block.length) {
+                    final int read = source.read(block, filled, block.length - filled);
+                    if (read < 0) {
+                        endOfStream = true;
+                        break;
+                    }
+                    filled += read;
+                }
+                buffer.limit(filled).position(0);
+                while (buffer.hasRemaining()) {
+                    written += target.write(buffer, position + written);
+                }
+            }
+        }
+        return written;
+    }
+
+    /**
+     * Close the connection of a response without reading the rest of its body, as closing the
+     * response does. Reads blocked on the body in other threads fail at once.
+     */
+    private static void abort(InputStream body) {
+        if (body instanceof ConnectionReleaseTrigger) {
+            try {
+                ((ConnectionReleaseTrigger) body).abortConnection();
+            } catch (IOException ex) {
+                // the connection is closed anyway
+            }
+        }
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException ex) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Bodies of the ranges being received, aborted together with the first failure of any of them.
+     */
+    private static class RangeBodies {
+
+        private final Set<InputStream> bodies = ConcurrentHashMap.newKeySet();
+        private final AtomicReference<Exception> failure = new AtomicReference<>();
+        private volatile boolean aborted;
+
+        void add(InputStream body) throws IOException {
+            bodies.add(body);
+            // aborted while the range was requested
+            if (aborted) {
+                abort(body);
+                throw new IOException("Download aborted");
+            }
+        }
+
+        void remove(InputStream body) {
+            bodies.remove(body);
+        }
+
+        /**
+         * @param cause the failure of a range, or null once the download is over
+         */
+        void abort(Exception cause) {
+            if (cause != null) {
+                failure.compareAndSet(null, cause);
+            }
+            aborted = true;
+            bodies.forEach(ContentClient::abort);
+        }
+
+        Exception getFailure() {
+            return failure.get();
+        }
+    }
+
+    private static class ContentChangedException extends IOException {
+
+        ContentChangedException() {
+            super("Content changed since the partial download");
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2005-2020 Alfresco Software, Ltd. All rights reserved.
+ * License rights for this program may be obtained from Alfresco Software, Ltd.
+ * pursuant to a written agreement and any use of this program without such an
+ * agreement is prohibited.
+ */
+package org.alfresco.cli.content;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts transferred bytes and prints the progress and throughput to the error output, keeping the
+ * standard output free for the formatted result.
+ */
+public class TransferProgress {
+
+    private static final long REPORT_INTERVAL = 500_000_000L;
+    private static final double MEGABYTE = 1024 * 1024;
+
+    private final String name;
+    private volatile long totalBytes;
+    private final boolean enabled;
+    private final PrintStream out = System.err;
+    private final long started = System.nanoTime();
+    private final AtomicLong bytes = new AtomicLong();
+    private final AtomicLong lastReport = new AtomicLong(started);
+
+    /**
+     * @param name       what is being transferred
+     * @param totalBytes expected size, or -1 when unknown
+     * @param enabled    whether anything is printed at all
+     */
+    public TransferProgress(String name, long totalBytes, boolean enabled) {
+        this.name = name;
+        this.totalBytes = totalBytes;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Set the expected size once it is known, -1 when unknown.
+     */
+    public void setTotalBytes(long totalBytes) {
+        this.totalBytes = totalBytes;
+    }
+
+    public void add(long count) {
+        long transferred = bytes.addAndGet(count);
+        if (enabled) {
+            long now = System.nanoTime();
+            long last = lastReport.get();
+            if (now - last >= REPORT_INTERVAL && lastReport.compareAndSet(last, now)) {
+                print(transferred, now, false);
+            }
+        }
+    }
+
+    public long getBytes() {
+        return bytes.get();
+    }
+
+    /**
+     * Bytes per second since the transfer started.
+     */
+    public double getThroughput() {
+        double seconds = Math.max(System.nanoTime() - started, 1) / 1e9;
+        return bytes.get() / seconds;
+    }
+
+    public void done() {
+        if (enabled) {
+            print(bytes.get(), System.nanoTime(), true);
+        }
+    }
+
+    public InputStream wrap(InputStream in) {
+        return new FilterInputStream(in) {
+
+            @Override
+            public int read() throws IOException {
+                int b = super.read();
+                if (b >= 0) {
+                    add(1);
+                }
+                return b;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                int read = super.read(b, off, len);
+                if (read > 0) {
+                    add(read);
+                }
+                return read;
+            }
+        };
+    }
+
+    private void print(long transferred, long now, boolean last) {
+        double seconds = Math.max(now - started, 1) / 1e9;
+        String total = totalBytes >= 0 ? String.format(" of %.1f MB", totalBytes / MEGABYTE) : "";
+        synchronized (out) {
+            out.printf("\r%s: %.1f MB%s (%.1f MB/s)", name, transferred / MEGABYTE, total,
+                    transferred / MEGABYTE / seconds);
+            if (last) {
+                out.println();
+            }
+            out.flush();
+        }
+    }
+}
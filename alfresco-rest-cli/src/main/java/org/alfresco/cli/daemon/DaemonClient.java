@@ -0,0 +1,158 @@
+/*
+ * Copyright 2005-2020 Alfresco Software, Ltd. All rights reserved.
+ * License rights for this program may be obtained from Alfresco Software, Ltd.
+ * pursuant to a written agreement and any use of this program without such an
+ * agreement is prohibited.
+ */
+package org.alfresco.cli.daemon;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.Arrays;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.Properties;
+
+/**
+ * Thin client forwarding command lines to a running {@link DaemonServer}.
+ *
+ * It is used before the Spring context is started, so it must not depend on any bean.
+ */
+public class DaemonClient {
+
+    private static final int CONNECT_TIMEOUT = 1000;
+    private static final int BUFFER_SIZE = 8192;
+    private static final int CONNECTION_LOST = 1;
+
+    // Commands that change the daemon or its configuration, or read the standard input, always run
+    // in the local JVM
+    private static final List<String> LOCAL_COMMANDS = Arrays.asList("daemon", "config", "exec");
+
+    private DaemonClient() {
+    }
+
+    /**
+     * Forward the arguments to the daemon, if one is running for the current working directory,
+     * configuration file, environment variables and system properties overriding the configuration.
+     *
+     * @return the exit code of the command, or empty when the command has to run locally
+     */
+    public static OptionalInt forward(String[] args) {
+        if (args.length == 0 || LOCAL_COMMANDS.contains(args[0]) || !DaemonProtocol.STATE_FILE.exists()) {
+            return OptionalInt.empty();
+        }
+        try {
+            Properties state = DaemonProtocol.readState();
+            // relative paths, the server and the credentials are resolved by the daemon, so they must match
+            if (!DaemonProtocol.workingDirectory().equals(state.getProperty(DaemonProtocol.WORKING_DIRECTORY))
+                    || !String.valueOf(DaemonProtocol.configurationModified())
+                            .equals(state.getProperty(DaemonProtocol.CONFIGURATION_MODIFIED))
+                    || !DaemonProtocol.overrides().equals(state.getProperty(DaemonProtocol.OVERRIDES))) {
+                return OptionalInt.empty();
+            }
+            return send(state, args);
+        } catch (IOException | RuntimeException ex) {
+            return OptionalInt.empty();
+        }
+    }
+
+    /**
+     * Send the arguments and copy the output of the command until its exit code is received.
+     *
+     * @return empty when the daemon closed the connection without running the command, which can
+     *         then run locally
+     */
+    static OptionalInt send(Properties state, String[] args) throws IOException {
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(),
+                    Integer.parseInt(state.getProperty(DaemonProtocol.PORT))), CONNECT_TIMEOUT);
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            DaemonProtocol.writeString(out, state.getProperty(DaemonProtocol.TOKEN));
+            out.writeInt(args.length);
+            for (String arg : args) {
+                DaemonProtocol.writeString(out, arg);
+            }
+            out.flush();
+
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), BUFFER_SIZE));
+            byte[] buffer = new byte[BUFFER_SIZE];
+            boolean received = false;
+            try {
+                while (true) {
+                    byte type;
+                    try {
+                        type = in.readByte();
+                    } catch (EOFException ex) {
+                        // rejected before running anything, let the caller run the command locally
+                        if (!received) {
+                            return OptionalInt.empty();
+                        }
+                        throw ex;
+                    }
+                    received = true;
+                    int length = in.readInt();
+                    if (type == DaemonProtocol.EXIT) {
+                        System.out.flush();
+                        System.err.flush();
+                        return OptionalInt.of(length);
+                    }
+                    PrintStream target = type == DaemonProtocol.STDERR ? System.err : System.out;
+                    while (length > 0) {
+                        int read = in.read(buffer, 0, Math.min(length, buffer.length));
+                        if (read < 0) {
+                            throw new EOFException();
+                        }
+                        target.write(buffer, 0, read);
+                        length -= read;
+                    }
+                }
+            } catch (IOException ex) {
+                if (!received) {
+                    throw ex;
+                }
+                // the command has started, running it again locally could repeat what it has done
+                System.out.flush();
+                System.err.println("Connection to the daemon lost while running the command, it may have been partially executed");
+                return OptionalInt.of(CONNECTION_LOST);
+            }
+        }
+    }
+
+    /**
+     * Ask the running daemon to shut down.
+     *
+     * @return true when a daemon was running
+     */
+    public static boolean stop() throws IOException {
+        if (!DaemonProtocol.STATE_FILE.exists()) {
+            return false;
+        }
+        return send(DaemonProtocol.readState(), new String[] {"daemon", "stop"}).isPresent();
+    }
+
+    /**
+     * Properties of the running daemon, empty when no daemon is running.
+     */
+    public static Properties status() throws IOException {
+        if (!DaemonProtocol.STATE_FILE.exists()) {
+            return new Properties();
+        }
+        Properties state = DaemonProtocol.readState();
+        boolean alive = ProcessHandle.of(Long.parseLong(state.getProperty(DaemonProtocol.PID, "-1")))
+                .map(ProcessHandle::isAlive).orElse(false);
+        if (!alive) {
+            // stale state from a daemon that has been killed
+            DaemonProtocol.STATE_FILE.delete();
+            return new Properties();
+        }
+        return state;
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2005-2020 Alfresco Software, Ltd. All rights reserved.
+ * License rights for this program may be obtained from Alfresco Software, Ltd.
+ * pursuant to a written agreement and any use of this program without such an
+ * agreement is prohibited.
+ */
+package org.alfresco.cli.daemon;
+
+import java.io.IOException;
+import java.util.Properties;
+import org.springframework.stereotype.Component;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Model.CommandSpec;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.Spec;
+
+@Component
+@Command(name = "daemon", description = "Daemon commands")
+public class DaemonCommand {
+
+    @Spec
+    CommandSpec spec;
+
+    @Command(description = "Start a daemon serving every following command from this warmed-up process.")
+    public Integer start(@Option(names = {"-P", "--port"}, defaultValue = "0",
+            description = "Loopback port to listen on, a free port is chosen by default") int port) throws IOException {
+        if (!DaemonClient.status().isEmpty()) {
+            System.err.println("A daemon is already running, stop it first");
+            return 1;
+        }
+        new DaemonServer(spec.root().commandLine()).serve(port);
+        return 0;
+    }
+
+    @Command(description = "Stop the running daemon.")
+    public Integer stop() throws IOException {
+        if (DaemonClient.status().isEmpty() || !DaemonClient.stop()) {
+            System.err.println("No daemon is running");
+            return 1;
+        }
+        return 0;
+    }
+
+    @Command(description = "Show the running daemon.")
+    public Integer status() throws IOException {
+        Properties state = DaemonClient.status();
+        if (state.isEmpty()) {
+            System.out.println("No daemon is running");
+            return 1;
+        }
+        System.out.printf("%-10s %-10s %-80s", "PID", "PORT", "WORKING DIRECTORY");
+        System.out.println();
+        System.out.printf("%-10s %-10s %-80s", state.getProperty(DaemonProtocol.PID),
+                state.getProperty(DaemonProtocol.PORT), state.getProperty(DaemonProtocol.WORKING_DIRECTORY));
+        System.out.println();
+        return 0;
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2005-2020 Alfresco Software, Ltd. All rights reserved.
+ * License rights for this program may be obtained from Alfresco Software, Ltd.
+ * pursuant to a written agreement and any use of this program without such an
+ * agreement is prohibited.
+ */
+package org.alfresco.cli.daemon;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Wire format and state file shared by {@link DaemonServer} and {@link DaemonClient}.
+ *
+ * A request is the access token followed by the command line arguments. The response is a
+ * sequence of frames (type, length, bytes) for stdout and stderr, closed by an exit frame
+ * carrying the exit code.
+ */
+final class DaemonProtocol {
+
+    static final File STATE_FILE =
+            Paths.get(System.getProperty("user.home"), ".alfresco", "daemon.properties").toFile();
+
+    static final File USER_CONFIGURATION_FILE =
+            Paths.get(System.getProperty("user.home"), ".alfresco", "application.properties").toFile();
+
+    static final String PORT = "port";
+    static final String TOKEN = "token";
+    static final String PID = "pid";
+    static final String WORKING_DIRECTORY = "cwd";
+    static final String CONFIGURATION_MODIFIED = "config.modified";
+    static final String OVERRIDES = "overrides";
+
+    // Environment variables with these prefixes, once relaxed as Spring does (CONTENT_SERVICE_URL is
+    // content.service.url), override the configuration of the application
+    private static final List<String> PROPERTY_PREFIXES = Arrays.asList("content.", "search.", "feign.", "http.",
+            "security.", "activiti.", "spring.", "logging.");
+
+    static final byte EXIT = 0;
+    static final byte STDOUT = 1;
+    static final byte STDERR = 2;
+
+    static final int MAX_ARGUMENT_LENGTH = 1024 * 1024;
+
+    private DaemonProtocol() {
+    }
+
+    static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > MAX_ARGUMENT_LENGTH) {
+            throw new IOException("Invalid daemon request");
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static String workingDirectory() {
+        return Paths.get("").toAbsolutePath().toString();
+    }
+
+    static long configurationModified() {
+        return USER_CONFIGURATION_FILE.lastModified();
+    }
+
+    /**
+     * Digest of the environment variables and -D system properties that may override the
+     * configuration. Only the digest is stored in the state file, as the values may be credentials.
+     */
+    static String overrides() {
+        return overrides(System.getenv(), ManagementFactory.getRuntimeMXBean().getInputArguments());
+    }
+
+    static String overrides(Map<String, String> environment, List<String> jvmArguments) {
+        SortedMap<String, String> overrides = new TreeMap<>();
+        environment.forEach((name, value) -> {
+            String property = name.toLowerCase(Locale.ROOT).replace('_', '.');
+            if (PROPERTY_PREFIXES.stream().anyMatch(property::startsWith)) {
+                overrides.put("env:" + name, value);
+            }
+        });
+        // as given to the JVM, not the system properties set by the application once started
+        for (String argument : jvmArguments) {
+            if (argument.startsWith("-D")) {
+                overrides.put("jvm:" + argument, "");
+            }
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            overrides.forEach((name, value) -> {
+                digest.update(name.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+                digest.update(value.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            });
+            StringBuilder sb = new StringBuilder();
+            for (byte b : digest.digest()) {
+                sb.append(String.format("%02x", b));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    static Properties readState() throws IOException {
+        Properties state = new Properties();
+        try (InputStream in = new FileInputStream(STATE_FILE)) {
+            state.load(in);
+        }
+        return state;
+    }
+
+    static void writeState(Properties state) throws IOException {
+        Files.createDirectories(STATE_FILE.getParentFile().toPath());
+        try (OutputStream out = new FileOutputStream(STATE_FILE)) {
+            state.store(out, "Alfresco CLI Daemon");
+        }
+        try {
+            // the token grants access to the stored credentials, keep it private to the user
+            Files.setPosixFilePermissions(STATE_FILE.toPath(), PosixFilePermissions.fromString("rw-------"));
+        } catch (UnsupportedOperationException ex) {
+            // non POSIX file system
+        }
+    }
+
+    /**
+     * {@link OutputStream} that wraps every write into a frame of the given type.
+     */
+    static class FrameOutputStream extends OutputStream {
+
+        private final DataOutputStream out;
+        private final byte type;
+
+        FrameOutputStream(DataOutputStream out, byte type) {
+            this.out = out;
+            this.type = type;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (len > 0) {
+                synchronized (out) {
+                    out.writeByte(type);
+                    out.writeInt(len);
+                    out.write(b, off, len);
+                }
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+    }
+}
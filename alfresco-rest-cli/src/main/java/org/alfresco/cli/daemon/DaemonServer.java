@@ -0,0 +1,135 @@
+/*
+ * Copyright 2005-2020 Alfresco Software, Ltd. All rights reserved.
+ * License rights for this program may be obtained from Alfresco Software, Ltd.
+ * pursuant to a written agreement and any use of this program without such an
+ * agreement is prohibited.
+ */
+package org.alfresco.cli.daemon;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Properties;
+import org.alfresco.cli.daemon.DaemonProtocol.FrameOutputStream;
+import picocli.CommandLine;
+
+/**
+ * Serves forwarded command lines on a loopback socket using a single warmed-up {@link CommandLine}.
+ *
+ * Commands print to {@code System.out}, so requests are executed one at a time while the standard
+ * streams are redirected to the requesting client.
+ */
+public class DaemonServer {
+
+    private static final int REQUEST_TIMEOUT = 10000;
+    private static final int BUFFER_SIZE = 8192;
+
+    private final CommandLine commandLine;
+    private final String token;
+    private volatile boolean running = true;
+
+    public DaemonServer(CommandLine commandLine) {
+        this.commandLine = commandLine;
+        byte[] random = new byte[32];
+        new SecureRandom().nextBytes(random);
+        StringBuilder sb = new StringBuilder();
+        for (byte b : random) {
+            sb.append(String.format("%02x", b));
+        }
+        this.token = sb.toString();
+    }
+
+    public void serve(int port) throws IOException {
+        try (ServerSocket serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress())) {
+            writeState(serverSocket.getLocalPort());
+            Thread cleanup = new Thread(DaemonProtocol.STATE_FILE::delete);
+            Runtime.getRuntime().addShutdownHook(cleanup);
+            System.out.printf("Alfresco CLI daemon listening on port %d%n", serverSocket.getLocalPort());
+            while (running) {
+                try (Socket socket = serverSocket.accept()) {
+                    handle(socket);
+                } catch (IOException ex) {
+                    // malformed request or client went away, keep serving
+                }
+            }
+        } finally {
+            DaemonProtocol.STATE_FILE.delete();
+        }
+    }
+
+    private void writeState(int port) throws IOException {
+        Properties state = new Properties();
+        state.setProperty(DaemonProtocol.PORT, String.valueOf(port));
+        state.setProperty(DaemonProtocol.TOKEN, token);
+        state.setProperty(DaemonProtocol.PID, String.valueOf(ProcessHandle.current().pid()));
+        state.setProperty(DaemonProtocol.WORKING_DIRECTORY, DaemonProtocol.workingDirectory());
+        state.setProperty(DaemonProtocol.CONFIGURATION_MODIFIED,
+                String.valueOf(DaemonProtocol.configurationModified()));
+        state.setProperty(DaemonProtocol.OVERRIDES, DaemonProtocol.overrides());
+        DaemonProtocol.writeState(state);
+    }
+
+    private void handle(Socket socket) throws IOException {
+        socket.setSoTimeout(REQUEST_TIMEOUT);
+        DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), BUFFER_SIZE));
+
+        if (!MessageDigest.isEqual(token.getBytes(StandardCharsets.UTF_8),
+                DaemonProtocol.readString(in).getBytes(StandardCharsets.UTF_8))) {
+            return;
+        }
+        String[] args = new String[in.readInt()];
+        for (int i = 0; i < args.length; i++) {
+            args[i] = DaemonProtocol.readString(in);
+        }
+        socket.setSoTimeout(0);
+
+        int exitCode;
+        if (args.length == 2 && "daemon".equals(args[0]) && "stop".equals(args[1])) {
+            running = false;
+            exitCode = 0;
+        } else if (args.length > 0 && "daemon".equals(args[0])) {
+            PrintStream err = new PrintStream(new FrameOutputStream(out, DaemonProtocol.STDERR), true);
+            err.println("Daemon commands can not be forwarded to the daemon");
+            exitCode = 2;
+        } else {
+            exitCode = execute(args, out);
+        }
+
+        out.writeByte(DaemonProtocol.EXIT);
+        out.writeInt(exitCode);
+        out.flush();
+    }
+
+    private int execute(String[] args, DataOutputStream out) {
+        PrintStream stdout = System.out;
+        PrintStream stderr = System.err;
+        PrintStream clientOut = new PrintStream(
+                new BufferedOutputStream(new FrameOutputStream(out, DaemonProtocol.STDOUT), BUFFER_SIZE), false);
+        PrintStream clientErr = new PrintStream(new FrameOutputStream(out, DaemonProtocol.STDERR), true);
+        System.setOut(clientOut);
+        System.setErr(clientErr);
+        commandLine.setOut(new PrintWriter(clientOut, true));
+        commandLine.setErr(new PrintWriter(clientErr, true));
+        try {
+            return commandLine.execute(args);
+        } finally {
+            clientOut.flush();
+            clientErr.flush();
+            System.setOut(stdout);
+            System.setErr(stderr);
+            commandLine.setOut(new PrintWriter(stdout, true));
+            commandLine.setErr(new PrintWriter(stderr, true));
+        }
+    }
+}
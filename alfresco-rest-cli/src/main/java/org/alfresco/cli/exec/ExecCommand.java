@@ -0,0 +1,328 @@
+/*
+ * Copyright 2005-2020 Alfresco Software, Ltd. All rights reserved.
+ * License rights for this program may be obtained from Alfresco Software, Ltd.
+ * pursuant to a written agreement and any use of this program without such an
+ * agreement is prohibited.
+ */
+package org.alfresco.cli.exec;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
+import picocli.CommandLine;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.IFactory;
+import picocli.CommandLine.Model.CommandSpec;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.Spec;
+
+@Component
+@Command(name = "exec", description = "Execute the commands of a file, one command per line, in a single process.",
+        mixinStandardHelpOptions = true)
+public class ExecCommand implements Callable<Integer> {
+
+    private static final String STDIN = "-";
+
+    @Spec
+    CommandSpec spec;
+
+    @Autowired
+    IFactory factory;
+
+    @Autowired
+    ApplicationContext applicationContext;
+
+    @Option(names = {"-f", "--file"}, defaultValue = STDIN,
+            description = "File with the commands to execute, '-' reads them from standard input")
+    String file;
+
+    @Option(names = {"-P", "--parallel"}, defaultValue = "1",
+            description = "Number of commands executed concurrently")
+    int parallel;
+
+    @Override
+    public Integer call() throws Exception {
+        // nested executions reset the options of this command
+        final String commandFile = file;
+        final int workers = Math.max(1, parallel);
+
+        PrintStream stdout = System.out;
+        ThreadOutputStream output = new ThreadOutputStream(stdout);
+        System.setOut(new PrintStream(output, true));
+        try (BufferedReader reader = STDIN.equals(commandFile)
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                : Files.newBufferedReader(new File(commandFile).toPath(), StandardCharsets.UTF_8)) {
+            return workers == 1 ? executeSequential(reader, output) : executeParallel(reader, output, workers);
+        } finally {
+            System.setOut(stdout);
+        }
+    }
+
+    private int executeSequential(BufferedReader reader, ThreadOutputStream output) throws IOException {
+        CommandLine commandLine = spec.root().commandLine();
+        int failures = 0;
+        int lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            List<String> args = parse(lineNumber, line);
+            if (args == null) {
+                failures++;
+            } else if (!args.isEmpty()) {
+                CommandOutput commandOutput = new CommandOutput(output.fallback);
+                output.set(commandOutput);
+                int exitCode;
+                try {
+                    exitCode = commandLine.execute(args.toArray(new String[0]));
+                } finally {
+                    output.set(null);
+                }
+                commandOutput.terminateLine();
+                failures += report(lineNumber, exitCode);
+            }
+        }
+        return failures == 0 ? 0 : 1;
+    }
+
+    private int executeParallel(BufferedReader reader, ThreadOutputStream output, int workers)
+            throws IOException, InterruptedException {
+        // every worker gets its own command instances, since picocli stores options in fields
+        IFactory prototypeFactory = new PrototypeFactory();
+        Object rootCommand = spec.root().userObject();
+        ThreadLocal<CommandLine> commandLines =
+                ThreadLocal.withInitial(() -> new CommandLine(rootCommand, prototypeFactory));
+
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        Semaphore pending = new Semaphore(workers * 2);
+        AtomicInteger failures = new AtomicInteger();
+        try {
+            int lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                final int currentLine = ++lineNumber;
+                final List<String> args = parse(currentLine, line);
+                if (args == null) {
+                    failures.incrementAndGet();
+                } else if (!args.isEmpty()) {
+                    pending.acquire();
+                    executor.execute(() -> {
+                        try {
+                            failures.addAndGet(executeBuffered(commandLines.get(), args, currentLine, output));
+                        } finally {
+                            pending.release();
+                        }
+                    });
+                }
+            }
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+        }
+        return failures.get() == 0 ? 0 : 1;
+    }
+
+    private int executeBuffered(CommandLine commandLine, List<String> args, int lineNumber,
+            ThreadOutputStream output) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        CommandOutput commandOutput = new CommandOutput(buffer);
+        output.set(commandOutput);
+        int exitCode;
+        try {
+            exitCode = commandLine.execute(args.toArray(new String[0]));
+        } finally {
+            output.set(null);
+        }
+        // print the whole output at once so results of concurrent commands are not mixed
+        try {
+            commandOutput.terminateLine();
+            synchronized (output.fallback) {
+                buffer.writeTo(output.fallback);
+                output.fallback.flush();
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return report(lineNumber, exitCode);
+    }
+
+    private List<String> parse(int lineNumber, String line) {
+        try {
+            return tokenize(line);
+        } catch (IllegalArgumentException ex) {
+            System.err.printf("Line %d can not be parsed: %s%n", lineNumber, ex.getMessage());
+            return null;
+        }
+    }
+
+    private int report(int lineNumber, int exitCode) {
+        if (exitCode != 0) {
+            System.err.printf("Line %d failed with exit code %d%n", lineNumber, exitCode);
+            return 1;
+        }
+        return 0;
+    }
+
+    /**
+     * Split a command line into arguments using shell-like quoting. Blank lines and lines starting
+     * with '#' produce no arguments.
+     */
+    static List<String> tokenize(String line) {
+        List<String> args = new ArrayList<>();
+        String trimmed = line.trim();
+        if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+            return args;
+        }
+        StringBuilder current = new StringBuilder();
+        boolean inToken = false;
+        char quote = 0;
+        for (int i = 0; i < trimmed.length(); i++) {
+            char c = trimmed.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                } else if (c == '\\' && quote == '"' && i + 1 < trimmed.length()) {
+                    current.append(trimmed.charAt(++i));
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"' || c == '\'') {
+                quote = c;
+                inToken = true;
+            } else if (c == '\\' && i + 1 < trimmed.length()) {
+                current.append(trimmed.charAt(++i));
+                inToken = true;
+            } else if (Character.isWhitespace(c)) {
+                if (inToken) {
+                    args.add(current.toString());
+                    current.setLength(0);
+                    inToken = false;
+                }
+            } else {
+                current.append(c);
+                inToken = true;
+            }
+        }
+        if (quote != 0) {
+            throw new IllegalArgumentException("Unterminated quote in: " + line);
+        }
+        if (inToken) {
+            args.add(current.toString());
+        }
+        return args;
+    }
+
+    /**
+     * {@link IFactory} creating new autowired instances instead of reusing singleton beans.
+     */
+    private class PrototypeFactory implements IFactory {
+
+        @Override
+        public <K> K create(Class<K> cls) throws Exception {
+            try {
+                return applicationContext.getAutowireCapableBeanFactory().createBean(cls);
+            } catch (BeansException ex) {
+                return factory.create(cls);
+            }
+        }
+    }
+
+    /**
+     * Routes {@code System.out} to the output of the command running in the current thread.
+     */
+    private static class ThreadOutputStream extends OutputStream {
+
+        private final PrintStream fallback;
+        private final ThreadLocal<OutputStream> current = new ThreadLocal<>();
+
+        ThreadOutputStream(PrintStream fallback) {
+            this.fallback = fallback;
+        }
+
+        void set(OutputStream target) {
+            if (target == null) {
+                current.remove();
+            } else {
+                current.set(target);
+            }
+        }
+
+        private OutputStream target() {
+            OutputStream target = current.get();
+            return target != null ? target : fallback;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            target().write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            target().write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            target().flush();
+        }
+    }
+
+    /**
+     * Output of a single command, keeping track of the last byte so results printed without a line
+     * break (as with '-f id') do not run into the next one.
+     */
+    private static class CommandOutput extends OutputStream {
+
+        private final OutputStream target;
+        private int last = '\n';
+
+        CommandOutput(OutputStream target) {
+            this.target = target;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            target.write(b);
+            last = b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            target.write(b, off, len);
+            if (len > 0) {
+                last = b[off + len - 1];
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            target.flush();
+        }
+
+        void terminateLine() throws IOException {
+            if (last != '\n') {
+                write('\n');
+            }
+            flush();
+        }
+    }
+}
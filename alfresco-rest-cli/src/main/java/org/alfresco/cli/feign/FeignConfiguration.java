@@ -7,9 +7,14 @@
 package org.alfresco.cli.feign;
 
 import feign.Logger;
+import java.util.concurrent.TimeUnit;
+import org.apache.http.conn.HttpClientConnectionManager;
+import org.apache.http.impl.client.IdleConnectionEvictor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.security.oauth2.client.OAuth2RestTemplate;
 import org.springframework.security.oauth2.client.token.grant.client.ClientCredentialsResourceDetails;
 import org.springframework.web.client.RestTemplate;
@@ -22,6 +27,18 @@ public class FeignConfiguration {
         return Logger.Level.FULL;
     }
 
+    /**
+     * Close the connections of the pooled client idle for too long, which the pool auto-configured
+     * from the feign.httpclient properties does not do: only expired ones are closed.
+     */
+    // started with the context, nothing depends on it
+    @Bean(initMethod = "start", destroyMethod = "shutdown")
+    @Lazy(false)
+    public IdleConnectionEvictor idleConnectionEvictor(HttpClientConnectionManager connectionManager,
+            @Value("${http.client.idle-timeout:30}") long idleTimeout) {
+        return new IdleConnectionEvictor(connectionManager, idleTimeout, TimeUnit.SECONDS);
+    }
+
     @Bean
     @ConfigurationProperties(prefix = "security.oauth2.client")
     public ClientCredentialsResourceDetails clientCredentialsResourceDetails() {
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2005-2020 Alfresco Software, Ltd. All rights reserved.
+ * License rights for this program may be obtained from Alfresco Software, Ltd.
+ * pursuant to a written agreement and any use of this program without such an
+ * agreement is prohibited.
+ */
+package org.alfresco.cli.format;
+
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.introspect.AnnotatedMember;
+import com.fasterxml.jackson.databind.introspect.AnnotatedMethod;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.time.temporal.Temporal;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Accessors reading the columns of tabular formats from the entries being printed.
+ *
+ * Columns are named after the JSON properties, so they match the output of the 'json' format, and
+ * the getters are resolved once per class instead of using reflection for every row. Nested
+ * properties are separated by dots; for maps, as the node properties, the segment is the key.
+ */
+final class ColumnAccessors {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.publicLookup();
+
+    // JSON property name to getter, for every class
+    private static final ClassValue<Map<String, Getter>> GETTERS = new ClassValue<>() {
+
+        @Override
+        protected Map<String, Getter> computeValue(Class<?> type) {
+            return findGetters(type);
+        }
+    };
+
+    private ColumnAccessors() {
+    }
+
+    /**
+     * Accessors for the given columns of the rows of a class, or for its scalar properties when no
+     * column is given.
+     */
+    static Map<String, Function<Object, Object>> compile(Class<?> rowClass, List<String> columns) {
+        final Map<String, Function<Object, Object>> accessors = new LinkedHashMap<>();
+        if (columns.isEmpty()) {
+            GETTERS.get(rowClass).forEach((name, getter) -> {
+                if (isScalar(getter.type)) {
+                    accessors.put(name, getter::get);
+                }
+            });
+        } else {
+            for (String column : columns) {
+                accessors.put(column, compile(rowClass, column));
+            }
+        }
+        return accessors;
+    }
+
+    static boolean isScalar(Class<?> type) {
+        return type.isPrimitive() || CharSequence.class.isAssignableFrom(type)
+                || Number.class.isAssignableFrom(type) || Boolean.class == type || type.isEnum()
+                || Temporal.class.isAssignableFrom(type) || Date.class.isAssignableFrom(type);
+    }
+
+    private static Function<Object, Object> compile(Class<?> rowClass, String column) {
+        Function<Object, Object> accessor = Function.identity();
+        Class<?> type = rowClass;
+        for (String segment : column.split("\\.")) {
+            final Function<Object, Object> step;
+            if (Map.class.isAssignableFrom(type)) {
+                step = value -> ((Map<?, ?>) value).get(segment);
+                type = Object.class;
+            } else if (type == Object.class) {
+                // unknown until the value is read, as the values of a map
+                step = value -> {
+                    final Getter getter = GETTERS.get(value.getClass()).get(segment);
+                    return getter != null ? getter.get(value) : value instanceof Map ? ((Map<?, ?>) value).get(segment) : null;
+                };
+            } else {
+                final Getter getter = GETTERS.get(type).get(segment);
+                if (getter == null) {
+                    throw new IllegalArgumentException("Unknown column '" + column + "' for " + rowClass.getSimpleName());
+                }
+                step = getter::get;
+                type = getter.type;
+            }
+            final Function<Object, Object> previous = accessor;
+            accessor = value -> {
+                final Object parent = previous.apply(value);
+                return parent != null ? step.apply(parent) : null;
+            };
+        }
+        return accessor;
+    }
+
+    private static Map<String, Getter> findGetters(Class<?> type) {
+        final Map<String, Getter> getters = new LinkedHashMap<>();
+        final BeanDescription description = JsonFormatProvider.MAPPER.getSerializationConfig()
+                .introspect(JsonFormatProvider.MAPPER.constructType(type));
+        for (BeanPropertyDefinition property : description.findProperties()) {
+            final AnnotatedMember accessor = property.getAccessor();
+            if (accessor instanceof AnnotatedMethod) {
+                final Method method = ((AnnotatedMethod) accessor).getAnnotated();
+                try {
+                    final MethodHandle handle = LOOKUP.unreflect(method)
+                            .asType(MethodType.methodType(Object.class, Object.class));
+                    getters.put(property.getName(), new Getter(handle, method.getReturnType()));
+                } catch (IllegalAccessException ex) {
+                    // not public, not a column
+                }
+            }
+        }
+        return getters;
+    }
+
+    private static class Getter {
+
+        private final MethodHandle handle;
+        private final Class<?> type;
+
+        Getter(MethodHandle handle, Class<?> type) {
+            this.handle = handle;
+            this.type = type;
+        }
+
+        Object get(Object target) {
+            try {
+                return handle.invokeExact(target);
+            } catch (RuntimeException | Error ex) {
+                throw ex;
+            } catch (Throwable ex) {
+                throw new IllegalStateException(ex);
+            }
+        }
+    }
+}
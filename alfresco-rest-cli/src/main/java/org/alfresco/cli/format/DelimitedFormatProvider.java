@@ -0,0 +1,153 @@
+/*
+ * Copyright 2005-2020 Alfresco Software, Ltd. All rights reserved.
+ * License rights for this program may be obtained from Alfresco Software, Ltd.
+ * pursuant to a written agreement and any use of this program without such an
+ * agreement is prohibited.
+ */
+package org.alfresco.cli.format;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import org.springframework.stereotype.Component;
+
+/**
+ * Comma separated values: one row per entry of a paging list, or a single row for other items,
+ * after a header with the column names. The columns are selected with '--columns'.
+ */
+@Component
+public class DelimitedFormatProvider implements FormatProvider {
+
+    public static final String CSV = "csv";
+    public static final String TSV = "tsv";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final String format;
+    private final char separator;
+
+    public DelimitedFormatProvider() {
+        this(CSV, ',');
+    }
+
+    DelimitedFormatProvider(String format, char separator) {
+        this.format = format;
+        this.separator = separator;
+    }
+
+    @Override
+    public void print(Object item) {
+        print(item, null);
+    }
+
+    @Override
+    public void print(Object item, FormatOptions options) {
+        final List<Object> rows = PagingListEntries.isPagingList(item.getClass()) ? PagingListEntries.of(item)
+                : Collections.singletonList(item);
+        // the columns are those of the first actual entry, entries may be null
+        final Object first = rows.stream().filter(Objects::nonNull).findFirst().orElse(null);
+        if (first == null) {
+            return;
+        }
+        final List<String> columns = options != null ? options.getColumns() : Collections.emptyList();
+        final Class<?> rowClass = first.getClass();
+        final Map<String, Function<Object, Object>> accessors = ColumnAccessors.compile(rowClass, columns);
+
+        try {
+            // flushed, but not closed, once the whole item is written
+            final Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8),
+                    BUFFER_SIZE);
+            if (options == null || options.needsHeader(rowClass)) {
+                writeRow(out, accessors.keySet());
+            }
+            final Object[] values = new Object[accessors.size()];
+            for (Object row : rows) {
+                int i = 0;
+                for (Function<Object, Object> accessor : accessors.values()) {
+                    values[i++] = row != null ? accessor.apply(row) : null;
+                }
+                writeRow(out, values);
+            }
+            out.flush();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private void writeRow(Writer out, Iterable<?> values) throws IOException {
+        boolean first = true;
+        for (Object value : values) {
+            if (!first) {
+                out.write(separator);
+            }
+            writeValue(out, value);
+            first = false;
+        }
+        out.write('\n');
+    }
+
+    private void writeRow(Writer out, Object[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                out.write(separator);
+            }
+            writeValue(out, values[i]);
+        }
+        out.write('\n');
+    }
+
+    private void writeValue(Writer out, Object value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        final String text = toText(value);
+        if (separator == '\t') {
+            // TSV has no quoting, so separators and line breaks in values become spaces
+            out.write(text.replace('\t', ' ').replace('\r', ' ').replace('\n', ' '));
+        } else if (text.indexOf(separator) >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0
+                || text.indexOf('\r') >= 0) {
+            out.write('"');
+            out.write(text.replace("\"", "\"\""));
+            out.write('"');
+        } else {
+            out.write(text);
+        }
+    }
+
+    private static String toText(Object value) throws JsonProcessingException {
+        if (value instanceof Date) {
+            return ((Date) value).toInstant().toString();
+        }
+        if (ColumnAccessors.isScalar(value.getClass())) {
+            return value.toString();
+        }
+        // lists, maps and objects as compact JSON
+        return JsonFormatProvider.MAPPER.writeValueAsString(value);
+    }
+
+    @Override
+    public boolean isApplicable(Class<?> itemClass, String format) {
+        return this.format.equals(format);
+    }
+
+    /**
+     * Tab separated values, without quoting.
+     */
+    @Component
+    static class TsvFormatProvider extends DelimitedFormatProvider {
+
+        TsvFormatProvider() {
+            super(TSV, '\t');
+        }
+    }
+}
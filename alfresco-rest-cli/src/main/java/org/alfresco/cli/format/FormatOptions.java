@@ -0,0 +1,35 @@
+/*
+ * Copyright 2005-2020 Alfresco Software, Ltd. All rights reserved.
+ * License rights for this program may be obtained from Alfresco Software, Ltd.
+ * pursuant to a written agreement and any use of this program without such an
+ * agreement is prohibited.
+ */
+package org.alfresco.cli.format;
+
+import java.util.List;
+
+/**
+ * Output options given in the command line, available to the providers that support them.
+ */
+public interface FormatOptions {
+
+    String LINE_SEPARATOR = "\n";
+
+    /**
+     * Properties to be printed for every entry, empty for the default ones. Nested properties are
+     * separated by dots, as in 'content.sizeInBytes'.
+     */
+    List<String> getColumns();
+
+    /**
+     * Separator between the ids printed by the 'id' format.
+     */
+    String getSeparator();
+
+    /**
+     * Whether a header has to be printed before the rows of the given class: true only the first time
+     * it is asked for that class during a command execution, so listings printed page by page get a
+     * single header.
+     */
+    boolean needsHeader(Class<?> rowClass);
+}
@@ -15,7 +15,15 @@ public interface FormatProvider {
 
     void print(Object item);
 
+    /**
+     * Print the item using the options given in the command line. Providers without options just
+     * print the item.
+     */
+    default void print(Object item, FormatOptions options) {
+        print(item);
+    }
+
     default boolean isApplicable(Class<?> itemClass, String format) {
         return false;
     }
-}
\ No newline at end of file
+}
@@ -8,25 +8,77 @@ package org.alfresco.cli.format;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import org.springframework.beans.factory.annotation.Autowired;
 import picocli.CommandLine;
 
-public class FormatProviderRegistry {
+public class FormatProviderRegistry implements FormatOptions {
 
-    @CommandLine.Option(names = {"-f", "--format"}, description = "Output format. E.g.: 'default', 'json' or 'id'.")
     String format = FormatProvider.DEFAULT;
 
+    @CommandLine.Option(names = {"-cl", "--columns"}, split = ",",
+            description = "Comma separated properties printed by the 'csv' and 'tsv' formats. E.g.: 'id,name,content.sizeInBytes'")
+    List<String> columns = Collections.emptyList();
+
+    @CommandLine.Option(names = {"-sep", "--separator"},
+            description = "Separator between the ids printed by the 'id' format. By default ids are printed one per line")
+    String separator = null;
+
     @Autowired
-    List<FormatProvider> providers = Collections.emptyList();
+    FormatProviderResolver resolver;
+
+    private final Set<Class<?>> headers = ConcurrentHashMap.newKeySet();
+
+    // set on every execution, even when the option is not used, which starts a new output
+    @CommandLine.Option(names = {"-f", "--format"}, defaultValue = FormatProvider.DEFAULT,
+            description = "Output format. E.g.: 'default', 'json', 'json-compact', 'ndjson', 'csv', 'tsv' or 'id'.")
+    void setFormat(String format) {
+        this.format = format;
+        headers.clear();
+    }
 
     public void print(Object item) {
         if (item != null) {
-            FormatProvider provider = providers.stream()
-                    .filter(prv -> prv.isApplicable(item.getClass(), format))
-                    .findFirst()
-                    .orElse(elem -> System.out.println(elem));
+            resolve(item.getClass()).print(item, this);
+        }
+    }
 
-            provider.print(item);
+    /**
+     * Print every item, looking the provider up only when the class of the items changes.
+     */
+    public void printAll(Iterable<?> items) {
+        Class<?> itemClass = null;
+        FormatProvider provider = null;
+        for (Object item : items) {
+            if (item == null) {
+                continue;
+            }
+            if (item.getClass() != itemClass) {
+                itemClass = item.getClass();
+                provider = resolve(itemClass);
+            }
+            provider.print(item, this);
         }
     }
-}
\ No newline at end of file
+
+    private FormatProvider resolve(Class<?> itemClass) {
+        // not created by Spring
+        return resolver != null ? resolver.resolve(itemClass, format) : FormatProviderResolver.TO_STRING;
+    }
+
+    @Override
+    public List<String> getColumns() {
+        return columns;
+    }
+
+    @Override
+    public String getSeparator() {
+        return separator != null ? separator : LINE_SEPARATOR;
+    }
+
+    @Override
+    public boolean needsHeader(Class<?> rowClass) {
+        return headers.add(rowClass);
+    }
+}
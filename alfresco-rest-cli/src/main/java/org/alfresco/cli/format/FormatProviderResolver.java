@@ -0,0 +1,64 @@
+/*
+ * Copyright 2005-2020 Alfresco Software, Ltd. All rights reserved.
+ * License rights for this program may be obtained from Alfresco Software, Ltd.
+ * pursuant to a written agreement and any use of this program without such an
+ * agreement is prohibited.
+ */
+package org.alfresco.cli.format;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Finds the provider printing the items of a class in a format. Providers are looked up once for
+ * every class and format, and shared by the {@link FormatProviderRegistry} of every command.
+ */
+@Component
+public class FormatProviderResolver {
+
+    static final FormatProvider TO_STRING = item -> System.out.println(item);
+
+    @Autowired
+    List<FormatProvider> providers = Collections.emptyList();
+
+    private final Map<String, Map<Class<?>, FormatProvider>> cache = new ConcurrentHashMap<>();
+
+    public FormatProvider resolve(Class<?> itemClass, String format) {
+        return cache.computeIfAbsent(format, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(itemClass, key -> find(key, format));
+    }
+
+    /**
+     * First provider applicable to the class, or else to its superclasses and interfaces, nearest
+     * first.
+     */
+    private FormatProvider find(Class<?> itemClass, String format) {
+        final Deque<Class<?>> types = new ArrayDeque<>();
+        final Set<Class<?>> visited = new HashSet<>();
+        types.add(itemClass);
+        while (!types.isEmpty()) {
+            final Class<?> type = types.poll();
+            if (!visited.add(type)) {
+                continue;
+            }
+            for (FormatProvider provider : providers) {
+                if (provider.isApplicable(type, format)) {
+                    return provider;
+                }
+            }
+            if (type.getSuperclass() != null) {
+                types.add(type.getSuperclass());
+            }
+            Collections.addAll(types, type.getInterfaces());
+        }
+        return TO_STRING;
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2005-2020 Alfresco Software, Ltd. All rights reserved.
+ * License rights for this program may be obtained from Alfresco Software, Ltd.
+ * pursuant to a written agreement and any use of this program without such an
+ * agreement is prohibited.
+ */
+package org.alfresco.cli.format;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Base of the 'id' format for lists: ids are written one by one as they are produced, separated by
+ * the '--separator' option, or one per line by default, and followed by a line break.
+ */
+public abstract class IdsFormatProvider implements FormatProvider {
+
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    /**
+     * Ids of the entries of the item.
+     */
+    protected abstract Stream<String> ids(Object item);
+
+    @Override
+    public void print(Object item) {
+        print(item, null);
+    }
+
+    @Override
+    public void print(Object item, FormatOptions options) {
+        final String separator = options != null ? options.getSeparator() : FormatOptions.LINE_SEPARATOR;
+        final Iterator<String> ids = ids(item).iterator();
+        if (!ids.hasNext()) {
+            return;
+        }
+        try {
+            // flushed, but not closed, once every id is written
+            final Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8),
+                    BUFFER_SIZE);
+            out.write(ids.next());
+            while (ids.hasNext()) {
+                out.write(separator);
+                out.write(ids.next());
+            }
+            out.write(FormatOptions.LINE_SEPARATOR);
+            out.flush();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
@@ -6,28 +6,82 @@
  */
 package org.alfresco.cli.format;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
 import org.springframework.stereotype.Component;
 
 @Component
 public class JsonFormatProvider implements FormatProvider {
 
     public static final String FORMAT = "json";
+    public static final String COMPACT_FORMAT = "json-compact";
+
+    // Mappers are thread safe, sharing one keeps the serializers found for every type
+    static final ObjectMapper MAPPER = new ObjectMapper().disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+    // Writers with the root serializer of every printed type already resolved
+    private static final ClassValue<ObjectWriter> INDENTED = new ClassValue<>() {
+
+        @Override
+        protected ObjectWriter computeValue(Class<?> type) {
+            return MAPPER.writer(SerializationFeature.INDENT_OUTPUT).forType(type);
+        }
+    };
+    static final ClassValue<ObjectWriter> COMPACT = new ClassValue<>() {
+
+        @Override
+        protected ObjectWriter computeValue(Class<?> type) {
+            return MAPPER.writer().forType(type);
+        }
+    };
+
+    private final String format;
+    private final ClassValue<ObjectWriter> writers;
+
+    public JsonFormatProvider() {
+        this(FORMAT, INDENTED);
+    }
+
+    JsonFormatProvider(String format, ClassValue<ObjectWriter> writers) {
+        this.format = format;
+        this.writers = writers;
+    }
 
     @Override
     public void print(Object item) {
+        write(writers.get(item.getClass()), item, System.out);
+    }
+
+    /**
+     * Serialize the item straight into the stream, followed by a line break.
+     */
+    static void write(ObjectWriter writer, Object item, PrintStream out) {
         try {
-            ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
-            System.out.println(mapper.writeValueAsString(item));
-        } catch(JsonProcessingException ex) {
-            throw new RuntimeException(ex);
+            writer.writeValue(out, item);
+            out.println();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
         }
     }
 
     @Override
     public boolean isApplicable(Class<?> itemClass, String format) {
-        return FORMAT.equals(format);
+        return this.format.equals(format);
+    }
+
+    /**
+     * JSON without indentation, one document per line.
+     */
+    @Component
+    static class CompactJsonFormatProvider extends JsonFormatProvider {
+
+        CompactJsonFormatProvider() {
+            super(COMPACT_FORMAT, COMPACT);
+        }
     }
-}
\ No newline at end of file
+}
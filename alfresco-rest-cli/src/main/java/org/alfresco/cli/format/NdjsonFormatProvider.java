@@ -0,0 +1,45 @@
+/*
+ * Copyright 2005-2020 Alfresco Software, Ltd. All rights reserved.
+ * License rights for this program may be obtained from Alfresco Software, Ltd.
+ * pursuant to a written agreement and any use of this program without such an
+ * agreement is prohibited.
+ */
+package org.alfresco.cli.format;
+
+import java.io.PrintStream;
+import org.springframework.stereotype.Component;
+
+/**
+ * Newline delimited JSON: every entry of a paging list is printed as a compact JSON document in its
+ * own line, and flushed as soon as it is written so the output can be processed while it is produced.
+ * Items that are not paging lists are printed as a single line.
+ */
+@Component
+public class NdjsonFormatProvider implements FormatProvider {
+
+    public static final String FORMAT = "ndjson";
+
+    @Override
+    public void print(Object item) {
+        final PrintStream out = System.out;
+        if (PagingListEntries.isPagingList(item.getClass())) {
+            for (Object entry : PagingListEntries.of(item)) {
+                if (entry != null) {
+                    printLine(entry, out);
+                }
+            }
+        } else {
+            printLine(item, out);
+        }
+    }
+
+    private void printLine(Object item, PrintStream out) {
+        JsonFormatProvider.write(JsonFormatProvider.COMPACT.get(item.getClass()), item, out);
+        out.flush();
+    }
+
+    @Override
+    public boolean isApplicable(Class<?> itemClass, String format) {
+        return FORMAT.equals(format);
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2005-2020 Alfresco Software, Ltd. All rights reserved.
+ * License rights for this program may be obtained from Alfresco Software, Ltd.
+ * pursuant to a written agreement and any use of this program without such an
+ * agreement is prohibited.
+ */
+package org.alfresco.cli.format;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Access to the entries of the paging lists returned by the REST API, such as
+ * {@code NodeChildAssociationPagingList}, where every element of {@code getEntries()} wraps the
+ * actual entry in {@code getEntry()}.
+ *
+ * The accessors are looked up once per class, so formats printing one line per entry do not use
+ * reflection for every row.
+ */
+public final class PagingListEntries {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.publicLookup();
+
+    // getEntries() of the paging list classes, null for other classes
+    private static final ClassValue<MethodHandle> ENTRIES = new ClassValue<>() {
+
+        @Override
+        protected MethodHandle computeValue(Class<?> type) {
+            return findGetter(type, "getEntries", List.class);
+        }
+    };
+
+    // getEntry() of the wrappers, null when the element is the entry itself (as SQL result rows)
+    private static final ClassValue<MethodHandle> ENTRY = new ClassValue<>() {
+
+        @Override
+        protected MethodHandle computeValue(Class<?> type) {
+            return findGetter(type, "getEntry", Object.class);
+        }
+    };
+
+    private PagingListEntries() {
+    }
+
+    public static boolean isPagingList(Class<?> type) {
+        return ENTRIES.get(type) != null;
+    }
+
+    /**
+     * Entries of the paging list, unwrapped.
+     */
+    public static List<Object> of(Object pagingList) {
+        final MethodHandle getEntries = ENTRIES.get(pagingList.getClass());
+        if (getEntries == null) {
+            throw new IllegalArgumentException(pagingList.getClass() + " is not a paging list");
+        }
+        final List<?> elements = (List<?>) invoke(getEntries, pagingList);
+        if (elements == null || elements.isEmpty()) {
+            return Collections.emptyList();
+        }
+        final List<Object> entries = new ArrayList<>(elements.size());
+        MethodHandle getEntry = null;
+        Class<?> elementClass = null;
+        for (Object element : elements) {
+            if (element != null && element.getClass() != elementClass) {
+                elementClass = element.getClass();
+                getEntry = ENTRY.get(elementClass);
+            }
+            entries.add(element != null && getEntry != null ? invoke(getEntry, element) : element);
+        }
+        return entries;
+    }
+
+    private static MethodHandle findGetter(Class<?> type, String name, Class<?> returnType) {
+        try {
+            final MethodHandle getter = LOOKUP.findVirtual(type, name, MethodType.methodType(
+                    type.getMethod(name).getReturnType()));
+            if (!returnType.isAssignableFrom(getter.type().returnType())) {
+                return null;
+            }
+            return getter.asType(MethodType.methodType(Object.class, Object.class));
+        } catch (NoSuchMethodException | IllegalAccessException ex) {
+            return null;
+        }
+    }
+
+    private static Object invoke(MethodHandle getter, Object target) {
+        try {
+            return getter.invokeExact(target);
+        } catch (RuntimeException | Error ex) {
+            throw ex;
+        } catch (Throwable ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
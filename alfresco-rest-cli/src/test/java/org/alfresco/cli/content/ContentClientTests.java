@@ -0,0 +1,220 @@
+package org.alfresco.cli.content;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.springframework.test.web.client.ExpectedCount.between;
+import static org.springframework.test.web.client.ExpectedCount.once;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.headerDoesNotExist;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.test.web.client.MockServerRestTemplateCustomizer;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.test.web.client.ResponseActions;
+import org.springframework.test.web.client.UnorderedRequestExpectationManager;
+
+class ContentClientTests {
+
+	private static final String CONTENT_URL = "http://localhost:8080/api/nodes/n1/content?attachment=true";
+	private static final int RANGE_SIZE = 8 * 1024 * 1024;
+
+	@TempDir
+	Path folder;
+
+	private CloseableHttpClient httpClient;
+	private MockRestServiceServer server;
+	private ContentClient contentClient;
+	private Path target;
+	private Path part;
+	private Path meta;
+
+	@BeforeEach
+	void setUp() {
+		// ranges are requested concurrently, in any order
+		final MockServerRestTemplateCustomizer customizer = new MockServerRestTemplateCustomizer(
+				UnorderedRequestExpectationManager.class);
+		httpClient = HttpClients.createMinimal();
+		contentClient = new ContentClient(new RestTemplateBuilder(customizer), httpClient, "http://localhost:8080",
+				"/api", "admin", "admin");
+		server = customizer.getServer();
+		target = folder.resolve("a.bin");
+		part = folder.resolve("a.bin" + ContentClient.PART_SUFFIX);
+		meta = folder.resolve("a.bin" + ContentClient.PART_SUFFIX + ContentClient.META_SUFFIX);
+	}
+
+	@AfterEach
+	void tearDown() throws IOException {
+		httpClient.close();
+	}
+
+	private ResponseActions expect(ExpectedCount count, String range) {
+		final ResponseActions actions = server.expect(count, requestTo(CONTENT_URL)).andExpect(method(HttpMethod.GET));
+		return range == null ? actions.andExpect(headerDoesNotExist(HttpHeaders.RANGE))
+				: actions.andExpect(header(HttpHeaders.RANGE, range));
+	}
+
+	private static HttpHeaders etag(String etag) {
+		final HttpHeaders headers = new HttpHeaders();
+		headers.setETag(etag);
+		return headers;
+	}
+
+	private static byte[] bytes(String text) {
+		return text.getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static TransferProgress progress() {
+		return new TransferProgress("a.bin", -1, false);
+	}
+
+	@Test
+	void resumeSendsTheStoredValidatorAsIfRange() throws IOException {
+		Files.write(part, bytes("hello "));
+		Files.writeString(meta, "\"v1\"");
+		expect(once(), "bytes=6-").andExpect(header(HttpHeaders.IF_RANGE, "\"v1\""))
+				.andRespond(withStatus(HttpStatus.PARTIAL_CONTENT).headers(etag("\"v1\"")).body(bytes("world")));
+
+		assertEquals(target, contentClient.resumeContent("n1", target, progress()));
+
+		server.verify();
+		assertEquals("hello world", Files.readString(target));
+		assertFalse(Files.exists(part));
+		assertFalse(Files.exists(meta));
+	}
+
+	@Test
+	void resumeStartsOverWithoutValidator() throws IOException {
+		Files.write(part, bytes("stale"));
+		expect(once(), null).andRespond(withSuccess(bytes("whole content"), MediaType.APPLICATION_OCTET_STREAM));
+
+		contentClient.resumeContent("n1", target, progress());
+
+		server.verify();
+		assertEquals("whole content", Files.readString(target));
+	}
+
+	@Test
+	void resumeKeepsTheNewContentWhenIfRangeDoesNotMatch() throws IOException {
+		Files.write(part, bytes("hello "));
+		Files.writeString(meta, "\"v1\"");
+		expect(once(), "bytes=6-").andExpect(header(HttpHeaders.IF_RANGE, "\"v1\""))
+				.andRespond(withSuccess(bytes("new content"), MediaType.APPLICATION_OCTET_STREAM).headers(etag("\"v2\"")));
+
+		contentClient.resumeContent("n1", target, progress());
+
+		server.verify();
+		assertEquals("new content", Files.readString(target));
+		assertFalse(Files.exists(meta));
+	}
+
+	@Test
+	void resumeStartsOverWhenIfRangeIsIgnored() throws IOException {
+		Files.write(part, bytes("hello "));
+		Files.writeString(meta, "\"v1\"");
+		// range of the new content
+		expect(once(), "bytes=6-")
+				.andRespond(withStatus(HttpStatus.PARTIAL_CONTENT).headers(etag("\"v2\"")).body(bytes("tent")));
+		expect(once(), null).andRespond(withSuccess(bytes("new content"), MediaType.APPLICATION_OCTET_STREAM)
+				.headers(etag("\"v2\"")));
+
+		contentClient.resumeContent("n1", target, progress());
+
+		server.verify();
+		assertEquals("new content", Files.readString(target));
+	}
+
+	@Test
+	void resumeStartsOverWhenTheRangeIsNotSatisfiable() throws IOException {
+		Files.write(part, bytes("longer than the new content"));
+		Files.writeString(meta, "\"v1\"");
+		expect(once(), "bytes=27-").andRespond(withStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE));
+		expect(once(), null).andRespond(withSuccess(bytes("short"), MediaType.APPLICATION_OCTET_STREAM));
+
+		contentClient.resumeContent("n1", target, progress());
+
+		server.verify();
+		assertEquals("short", Files.readString(target));
+		assertFalse(Files.exists(part));
+	}
+
+	private static byte[] content(long seed) {
+		final byte[] content = new byte[2 * RANGE_SIZE];
+		new Random(seed).nextBytes(content);
+		return content;
+	}
+
+	private void expectRange(ExpectedCount count, byte[] content, int start, String etag) {
+		expect(count, "bytes=" + start + "-" + (start + RANGE_SIZE - 1))
+				.andExpect(header(HttpHeaders.IF_RANGE, "\"v1\""))
+				.andRespond(withStatus(HttpStatus.PARTIAL_CONTENT).headers(etag(etag))
+						.body(Arrays.copyOfRange(content, start, start + RANGE_SIZE)));
+	}
+
+	@Test
+	void rangesAreTiedToTheContentOfTheProbe() throws Exception {
+		final byte[] content = content(1);
+		expect(once(), "bytes=0-0")
+				.andRespond(withStatus(HttpStatus.PARTIAL_CONTENT).headers(etag("\"v1\"")).body(new byte[] {content[0]}));
+		expectRange(once(), content, 0, "\"v1\"");
+		expectRange(once(), content, RANGE_SIZE, "\"v1\"");
+
+		contentClient.downloadContent("n1", target, content.length, 2, progress());
+
+		server.verify();
+		assertArrayEquals(content, Files.readAllBytes(target));
+		assertFalse(Files.exists(part));
+	}
+
+	@Test
+	void wholeContentSentInsteadOfTheProbeIsKept() throws Exception {
+		final byte[] content = content(2);
+		expect(once(), "bytes=0-0").andRespond(withSuccess(content, MediaType.APPLICATION_OCTET_STREAM));
+
+		contentClient.downloadContent("n1", target, content.length, 2, progress());
+
+		server.verify();
+		assertArrayEquals(content, Files.readAllBytes(target));
+	}
+
+	@Test
+	void contentChangedDuringTheRangesIsDownloadedAgain() throws Exception {
+		final byte[] content = content(3);
+		final byte[] changed = content(4);
+		expect(once(), "bytes=0-0")
+				.andRespond(withStatus(HttpStatus.PARTIAL_CONTENT).headers(etag("\"v1\"")).body(new byte[] {content[0]}));
+		// may be aborted before it is requested
+		expectRange(between(0, 1), content, 0, "\"v1\"");
+		// If-Range does not match anymore
+		expect(once(), "bytes=" + RANGE_SIZE + "-" + (2 * RANGE_SIZE - 1))
+				.andRespond(withSuccess(changed, MediaType.APPLICATION_OCTET_STREAM).headers(etag("\"v2\"")));
+		expect(once(), null).andRespond(withSuccess(changed, MediaType.APPLICATION_OCTET_STREAM).headers(etag("\"v2\"")));
+
+		contentClient.downloadContent("n1", target, content.length, 2, progress());
+
+		server.verify();
+		assertArrayEquals(changed, Files.readAllBytes(target));
+	}
+
+}
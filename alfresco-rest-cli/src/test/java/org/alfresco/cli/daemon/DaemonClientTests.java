@@ -0,0 +1,109 @@
+package org.alfresco.cli.daemon;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.Test;
+
+class DaemonClientTests {
+
+	private interface Response {
+
+		void write(DataOutputStream out) throws IOException;
+	}
+
+	/**
+	 * Send a command to a one-shot daemon reading the request and answering with the response.
+	 */
+	private static OptionalInt send(Response response) throws Exception {
+		try (ServerSocket serverSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+			CompletableFuture<Void> daemon = CompletableFuture.runAsync(() -> {
+				try (Socket socket = serverSocket.accept()) {
+					DataInputStream in = new DataInputStream(socket.getInputStream());
+					DaemonProtocol.readString(in);
+					for (int i = in.readInt(); i > 0; i--) {
+						DaemonProtocol.readString(in);
+					}
+					DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+					response.write(out);
+					out.flush();
+				} catch (IOException ex) {
+					throw new IllegalStateException(ex);
+				}
+			});
+			Properties state = new Properties();
+			state.setProperty(DaemonProtocol.PORT, String.valueOf(serverSocket.getLocalPort()));
+			state.setProperty(DaemonProtocol.TOKEN, "token");
+			try {
+				return DaemonClient.send(state, new String[] {"acs", "node", "delete", "abc"});
+			} finally {
+				daemon.join();
+			}
+		}
+	}
+
+	@Test
+	void exitCodeIsReturned() throws Exception {
+		assertEquals(OptionalInt.of(3), send(out -> {
+			out.writeByte(DaemonProtocol.STDOUT);
+			out.writeInt(3);
+			out.write("ok\n".getBytes());
+			out.writeByte(DaemonProtocol.EXIT);
+			out.writeInt(3);
+		}));
+	}
+
+	@Test
+	void rejectedCommandsRunLocally() throws Exception {
+		assertEquals(OptionalInt.empty(), send(out -> {}));
+	}
+
+	@Test
+	void lostConnectionIsAnErrorOnceTheCommandHasStarted() throws Exception {
+		OptionalInt exitCode = send(out -> {
+			out.writeByte(DaemonProtocol.STDERR);
+			out.writeInt(10);
+			out.write("deleting".getBytes());
+		});
+		assertEquals(OptionalInt.of(1), exitCode);
+	}
+
+	@Test
+	void daemonNotListening() throws IOException {
+		Properties state = new Properties();
+		try (ServerSocket serverSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+			state.setProperty(DaemonProtocol.PORT, String.valueOf(serverSocket.getLocalPort()));
+		}
+		state.setProperty(DaemonProtocol.TOKEN, "token");
+		assertThrows(IOException.class, () -> DaemonClient.send(state, new String[] {"acs"}));
+	}
+
+	@Test
+	void overridesOfTheConfigurationChangeTheDigest() {
+		List<String> jvm = Collections.emptyList();
+		String none = DaemonProtocol.overrides(Map.of("PATH", "/bin", "HOME", "/home/a"), jvm);
+		assertEquals(none, DaemonProtocol.overrides(Map.of("PATH", "/usr/bin"), jvm));
+		assertNotEquals(none, DaemonProtocol.overrides(Map.of("CONTENT_SERVICE_URL", "http://other"), jvm));
+		assertNotEquals(DaemonProtocol.overrides(Map.of("CONTENT_SERVICE_URL", "http://other"), jvm),
+				DaemonProtocol.overrides(Map.of("CONTENT_SERVICE_URL", "http://another"), jvm));
+		assertNotEquals(none, DaemonProtocol.overrides(Map.of("SPRING_APPLICATION_JSON", "{}"), jvm));
+		assertNotEquals(none, DaemonProtocol.overrides(Collections.emptyMap(),
+				Arrays.asList("-Xmx1g", "-Dcontent.service.security.basicAuth.password=secret")));
+		assertEquals(none, DaemonProtocol.overrides(Collections.emptyMap(), Arrays.asList("-Xmx1g")));
+	}
+
+}
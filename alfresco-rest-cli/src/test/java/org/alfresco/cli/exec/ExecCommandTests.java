@@ -0,0 +1,39 @@
+package org.alfresco.cli.exec;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+
+class ExecCommandTests {
+
+	@Test
+	void tokenizeSplitsOnWhitespace() {
+		assertEquals(Arrays.asList("acs", "node", "get-content", "abc", "-d", "/tmp"),
+				ExecCommand.tokenize("  acs node   get-content abc -d /tmp "));
+	}
+
+	@Test
+	void tokenizeHonoursQuotes() {
+		assertEquals(Arrays.asList("acs", "search", "cmis", "select * from cmis:document where cmis:name like '%Notes%'"),
+				ExecCommand.tokenize("acs search cmis \"select * from cmis:document where cmis:name like '%Notes%'\""));
+		assertEquals(Arrays.asList("acs", "node", "create", "-m", "cm:title=My \"quoted\" title"),
+				ExecCommand.tokenize("acs node create -m 'cm:title=My \"quoted\" title'"));
+		assertEquals(Arrays.asList("a", "", "b c"), ExecCommand.tokenize("a \"\" b\\ c"));
+	}
+
+	@Test
+	void tokenizeSkipsBlankAndCommentLines() {
+		assertTrue(ExecCommand.tokenize("").isEmpty());
+		assertTrue(ExecCommand.tokenize("   ").isEmpty());
+		assertTrue(ExecCommand.tokenize("# acs node list").isEmpty());
+	}
+
+	@Test
+	void tokenizeRejectsUnterminatedQuotes() {
+		assertThrows(IllegalArgumentException.class, () -> ExecCommand.tokenize("acs search cmis \"select"));
+	}
+
+}
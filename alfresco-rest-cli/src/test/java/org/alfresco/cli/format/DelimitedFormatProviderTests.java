@@ -0,0 +1,141 @@
+package org.alfresco.cli.format;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.alfresco.core.model.ContentInfo;
+import org.alfresco.core.model.NodeChildAssociation;
+import org.alfresco.core.model.NodeChildAssociationEntry;
+import org.alfresco.core.model.NodeChildAssociationPagingList;
+import org.junit.jupiter.api.Test;
+
+class DelimitedFormatProviderTests {
+
+	private final DelimitedFormatProvider csv = new DelimitedFormatProvider();
+	private final DelimitedFormatProvider tsv = new DelimitedFormatProvider.TsvFormatProvider();
+
+	/**
+	 * Options of a command execution, asking for a single header per row class.
+	 */
+	private static FormatOptions columns(String... columns) {
+		final Set<Class<?>> headers = new HashSet<>();
+		return new FormatOptions() {
+
+			@Override
+			public List<String> getColumns() {
+				return Arrays.asList(columns);
+			}
+
+			@Override
+			public String getSeparator() {
+				return LINE_SEPARATOR;
+			}
+
+			@Override
+			public boolean needsHeader(Class<?> rowClass) {
+				return headers.add(rowClass);
+			}
+		};
+	}
+
+	private static String print(DelimitedFormatProvider provider, FormatOptions options, Object... items) {
+		final PrintStream stdout = System.out;
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		System.setOut(new PrintStream(out, true, StandardCharsets.UTF_8));
+		try {
+			for (Object item : items) {
+				provider.print(item, options);
+			}
+		} finally {
+			System.setOut(stdout);
+		}
+		return out.toString(StandardCharsets.UTF_8);
+	}
+
+	private static NodeChildAssociation node(String id, String name) {
+		return new NodeChildAssociation().id(id).name(name);
+	}
+
+	private static NodeChildAssociationPagingList page(NodeChildAssociation... nodes) {
+		final NodeChildAssociationPagingList page = new NodeChildAssociationPagingList();
+		for (NodeChildAssociation node : nodes) {
+			page.addEntriesItem(node != null ? new NodeChildAssociationEntry().entry(node) : null);
+		}
+		return page;
+	}
+
+	@Test
+	void csvQuotesSeparatorsQuotesAndLineBreaks() {
+		final String output = print(csv, columns("id", "name"), page(node("n1", "plain.txt"), node("n2", "a,b.txt"),
+				node("n3", "say \"hi\".txt"), node("n4", "two\nlines"), node("n5", "tab\there")));
+
+		assertEquals("id,name\n"
+				+ "n1,plain.txt\n"
+				+ "n2,\"a,b.txt\"\n"
+				+ "n3,\"say \"\"hi\"\".txt\"\n"
+				+ "n4,\"two\nlines\"\n"
+				+ "n5,tab\there\n", output);
+	}
+
+	@Test
+	void tsvReplacesTabsAndLineBreaks() {
+		final String output = print(tsv, columns("id", "name"), page(node("n1", "a,b \"c\""), node("n2", "tab\there"),
+				node("n3", "two\r\nlines")));
+
+		assertEquals("id\tname\n"
+				+ "n1\ta,b \"c\"\n"
+				+ "n2\ttab here\n"
+				+ "n3\ttwo  lines\n", output);
+	}
+
+	@Test
+	void nestedAndMapColumns() {
+		final Map<String, Object> properties = new LinkedHashMap<>();
+		properties.put("cm:title", "Title, with comma");
+		properties.put("cm:author", "admin");
+		final NodeChildAssociation node = node("n1", "a.txt").properties(properties)
+				.content(new ContentInfo().mimeType("text/plain"))
+				.aspectNames(Arrays.asList("cm:titled", "cm:author"));
+
+		final String output = print(csv, columns("id", "content.mimeType", "properties.cm:title",
+				"properties.cm:author", "properties.missing", "aspectNames"), page(node, node("n2", "b.txt")));
+
+		assertEquals("id,content.mimeType,properties.cm:title,properties.cm:author,properties.missing,aspectNames\n"
+				+ "n1,text/plain,\"Title, with comma\",admin,,\"[\"\"cm:titled\"\",\"\"cm:author\"\"]\"\n"
+				+ "n2,,,,,\n", output);
+	}
+
+	@Test
+	void nullEntriesArePrintedAsEmptyRows() {
+		final String output = print(csv, columns("id", "name"), page(null, node("n1", "a.txt"), null));
+
+		assertEquals("id,name\n"
+				+ ",\n"
+				+ "n1,a.txt\n"
+				+ ",\n", output);
+		assertEquals("", print(csv, columns("id"), page((NodeChildAssociation) null)));
+	}
+
+	@Test
+	void pagesOfAnExecutionShareTheHeader() {
+		final String output = print(csv, columns("id"), page(node("n1", "a.txt")), page(node("n2", "b.txt")));
+
+		assertEquals("id\nn1\nn2\n", output);
+	}
+
+	@Test
+	void unknownColumnsAreRejected() {
+		assertThrows(IllegalArgumentException.class,
+				() -> print(csv, columns("id", "unknown"), page(node("n1", "a.txt"))));
+	}
+
+}
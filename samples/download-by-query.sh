@@ -21,13 +21,8 @@ CMIS_QUERY="select * from cmis:document where cmis:name like '%Notes%'"
 echo "Validating credentials for admin in $ACS_SERVER_URL"
 $ALF config acs "$ACS_SERVER_URL" $ACS_ADMIN_USER $ACS_ADMIN_PASS
 
-# get document ids from query
+# download the content of every document in the query results
 echo "Executing CMIS Query: \"$CMIS_QUERY\""
-QUERY_RESULTS=$($ALF acs search cmis "$CMIS_QUERY" -f id)
-
-for nodeId in $(echo $QUERY_RESULTS | sed "s/,/ /g")
-do
-    $ALF acs node get-content $nodeId -d "$PWD" -f id
-done
+$ALF acs search cmis "$CMIS_QUERY" --download-to "$PWD" -P 4
 
 echo "Job done!"